@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.exceptions;
+
+import java.util.List;
+
+/**
+ * Handler of custom exceptions, typically registered for one or more severities in
+ * a {@link SeverityHandlerRegistry}.
+ */
+@FunctionalInterface
+public interface CustomExceptionHandler {
+
+    void handle(CustomException exception);
+
+    /**
+     * Handles a batch of exceptions. All exceptions passed by the registry to this method have
+     * the same severity. Handlers that can process a batch more efficiently than one exception
+     * after another (e.g. by a single write to a log) should override this method.
+     */
+    default void handleAll(List<CustomException> exceptions) {
+        for (final CustomException exception : exceptions) {
+            handle(exception);
+        }
+    }
+}
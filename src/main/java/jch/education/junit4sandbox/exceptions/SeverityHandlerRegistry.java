@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.exceptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dispatches custom exceptions to handlers according to their severity. The handlers are
+ * kept in a flat array indexed by the ordinal of the severity, so the dispatch is a single
+ * array access instead of a chain of if/else statements, and it involves neither map
+ * lookups nor boxing.
+ * <p>
+ * The registry is immutable and it is meant to be built once (e.g. at startup) using the
+ * {@link Builder}. If several handlers are registered for the same severity, they are combined
+ * to a composite handler invoking them in the order of registration. If no handler is
+ * registered for a severity, the handler of the nearest higher severity is used, so for
+ * instance a handler for SERIOUS_PROBLEM also takes care of JUST_AN_INCONVENIENCE unless the
+ * latter has its own handler. Severities not covered this way are dispatched to the default
+ * handler.
+ */
+public final class SeverityHandlerRegistry {
+
+    private static final Severity[] SEVERITIES = Severity.values();
+
+    private final CustomExceptionHandler[] handlers;
+
+    private SeverityHandlerRegistry(CustomExceptionHandler[] handlers) {
+        this.handlers = handlers;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public void handle(CustomException exception) {
+        this.handlers[exception.getSeverity().ordinal()].handle(exception);
+    }
+
+    /**
+     * Groups the given exceptions by their severity in a single pass, and dispatches each group
+     * to the corresponding handler as a batch. The groups are dispatched in the order of the
+     * severities, from the lowest to the highest; the order of the exceptions within a group
+     * is preserved.
+     */
+    public void handleAll(List<CustomException> exceptions) {
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        final List<CustomException>[] groups = new List[SEVERITIES.length];
+        for (final CustomException exception : exceptions) {
+            final int ordinal = exception.getSeverity().ordinal();
+            if (groups[ordinal] == null) {
+                groups[ordinal] = new ArrayList<>();
+            }
+            groups[ordinal].add(exception);
+        }
+        for (int ordinal = 0; ordinal < groups.length; ordinal++) {
+            if (groups[ordinal] != null) {
+                this.handlers[ordinal].handleAll(Collections.unmodifiableList(groups[ordinal]));
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<List<CustomExceptionHandler>> handlers = new ArrayList<>(SEVERITIES.length);
+
+        private CustomExceptionHandler defaultHandler;
+
+        private Builder() {
+            for (int ordinal = 0; ordinal < SEVERITIES.length; ordinal++) {
+                this.handlers.add(new ArrayList<>());
+            }
+        }
+
+        public Builder on(Severity severity, CustomExceptionHandler handler) {
+            this.handlers.get(severity.ordinal()).add(handler);
+            return this;
+        }
+
+        public Builder otherwise(CustomExceptionHandler handler) {
+            this.defaultHandler = handler;
+            return this;
+        }
+
+        /**
+         * Resolves the fallback chains and creates the composite handlers, so that the
+         * resulting registry does not need to do anything like that during the dispatch.
+         *
+         * @throws IllegalStateException if some severity would not be handled at all
+         */
+        public SeverityHandlerRegistry build() {
+            final CustomExceptionHandler[] resolvedHandlers = new CustomExceptionHandler[SEVERITIES.length];
+            CustomExceptionHandler fallback = this.defaultHandler;
+            for (int ordinal = SEVERITIES.length - 1; ordinal >= 0; ordinal--) {
+                final List<CustomExceptionHandler> registered = this.handlers.get(ordinal);
+                if (!registered.isEmpty()) {
+                    fallback = combine(registered);
+                }
+                if (fallback == null) {
+                    String message = "There is no handler for the severity %s, and there is no default handler.";
+                    message = String.format(message, SEVERITIES[ordinal]);
+                    throw new IllegalStateException(message);
+                }
+                resolvedHandlers[ordinal] = fallback;
+            }
+            return new SeverityHandlerRegistry(resolvedHandlers);
+        }
+
+        private static CustomExceptionHandler combine(List<CustomExceptionHandler> handlers) {
+            if (handlers.size() == 1) {
+                return handlers.get(0);
+            }
+            final CustomExceptionHandler[] components = handlers.toArray(new CustomExceptionHandler[handlers.size()]);
+            return new CustomExceptionHandler() {
+
+                @Override
+                public void handle(CustomException exception) {
+                    for (final CustomExceptionHandler component : components) {
+                        component.handle(exception);
+                    }
+                }
+
+                @Override
+                public void handleAll(List<CustomException> exceptions) {
+                    for (final CustomExceptionHandler component : components) {
+                        component.handleAll(exceptions);
+                    }
+                }
+            };
+        }
+    }
+}
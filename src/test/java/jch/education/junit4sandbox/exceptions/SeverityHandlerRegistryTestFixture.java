@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.exceptions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * This test fixture verifies the dispatch of custom exceptions by the
+ * {@link SeverityHandlerRegistry}, including the fallback to the handler of a higher severity
+ * and to the default handler, composite handlers, and the batch mode.
+ */
+public class SeverityHandlerRegistryTestFixture {
+
+    private final List<String> log = new ArrayList<>();
+
+    private CustomExceptionHandler logger(String name) {
+        return exception -> this.log.add(name + ":" + exception.getSeverity());
+    }
+
+    private static CustomException exception(Severity severity) {
+        return new CustomException(severity, "Problem of severity " + severity);
+    }
+
+    @Test
+    public void exceptionIsDispatchedToHandlerOfItsSeverity() {
+        final SeverityHandlerRegistry registry = SeverityHandlerRegistry.builder()
+                .on(Severity.SERIOUS_PROBLEM, logger("serious"))
+                .on(Severity.END_OF_THE_WORLD, logger("apocalypse"))
+                .build();
+        registry.handle(exception(Severity.END_OF_THE_WORLD));
+        registry.handle(exception(Severity.SERIOUS_PROBLEM));
+        assertEquals(Arrays.asList("apocalypse:END_OF_THE_WORLD", "serious:SERIOUS_PROBLEM"), this.log);
+    }
+
+    @Test
+    public void exceptionWithoutHandlerFallsBackToHigherSeverityOrDefault() {
+        final SeverityHandlerRegistry registry = SeverityHandlerRegistry.builder()
+                .on(Severity.SERIOUS_PROBLEM, logger("serious"))
+                .otherwise(logger("default"))
+                .build();
+        registry.handle(exception(Severity.JUST_AN_INCONVENIENCE));
+        registry.handle(exception(Severity.DEATH_IS_INEVITABLE));
+        assertEquals(Arrays.asList("serious:JUST_AN_INCONVENIENCE", "default:DEATH_IS_INEVITABLE"), this.log);
+    }
+
+    @Test
+    public void severalHandlersForSameSeverityAreInvokedInOrderOfRegistration() {
+        final SeverityHandlerRegistry registry = SeverityHandlerRegistry.builder()
+                .on(Severity.SERIOUS_PROBLEM, logger("first"))
+                .on(Severity.SERIOUS_PROBLEM, logger("second"))
+                .otherwise(logger("default"))
+                .build();
+        registry.handle(exception(Severity.SERIOUS_PROBLEM));
+        assertEquals(Arrays.asList("first:SERIOUS_PROBLEM", "second:SERIOUS_PROBLEM"), this.log);
+    }
+
+    @Test
+    public void batchIsGroupedBySeverityBeforeDispatch() {
+        final List<Integer> batchSizes = new ArrayList<>();
+        final SeverityHandlerRegistry registry = SeverityHandlerRegistry.builder()
+                .on(Severity.JUST_AN_INCONVENIENCE, logger("minor"))
+                .otherwise(new CustomExceptionHandler() {
+
+                    @Override
+                    public void handle(CustomException exception) {
+                        SeverityHandlerRegistryTestFixture.this.log.add("default:" + exception.getSeverity());
+                    }
+
+                    @Override
+                    public void handleAll(List<CustomException> exceptions) {
+                        batchSizes.add(exceptions.size());
+                        CustomExceptionHandler.super.handleAll(exceptions);
+                    }
+                })
+                .build();
+        registry.handleAll(Arrays.asList(
+                exception(Severity.END_OF_THE_WORLD),
+                exception(Severity.JUST_AN_INCONVENIENCE),
+                exception(Severity.END_OF_THE_WORLD),
+                exception(Severity.JUST_AN_INCONVENIENCE)));
+        assertEquals(Arrays.asList(
+                "minor:JUST_AN_INCONVENIENCE",
+                "minor:JUST_AN_INCONVENIENCE",
+                "default:END_OF_THE_WORLD",
+                "default:END_OF_THE_WORLD"), this.log);
+        assertEquals(Arrays.asList(2), batchSizes);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void severityWithoutAnyHandlerIsRejected() {
+        SeverityHandlerRegistry.builder()
+                .on(Severity.SERIOUS_PROBLEM, logger("serious"))
+                .build();
+    }
+}
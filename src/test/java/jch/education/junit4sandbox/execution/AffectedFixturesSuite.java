@@ -0,0 +1,33 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import org.junit.runner.RunWith;
+
+/**
+ * Runs the test fixtures of this project affected by changes made since their last successful
+ * run, using the {@link IncrementalSuite} runner. Like {@link AllFixturesBalancedSuite}, the
+ * name of this class intentionally does not match the surefire includes in our pom.xml. Use
+ * <code>mvn test -Dtest=AffectedFixturesSuite</code>; the first run executes all test
+ * fixtures, the subsequent runs only those depending on modified classes (try to modify
+ * SquareRoot, for instance).
+ */
+@RunWith(IncrementalSuite.class)
+public class AffectedFixturesSuite {
+}
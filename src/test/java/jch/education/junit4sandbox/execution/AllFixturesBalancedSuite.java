@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import org.junit.runner.RunWith;
+
+/**
+ * Runs all test fixtures of this project using the {@link DurationBalancedSuite} runner. The
+ * name of this class intentionally does not match the surefire includes in our pom.xml, so the
+ * test fixtures are not executed twice by a plain <code>mvn test</code>. Use
+ * <code>mvn test -Dtest=AllFixturesBalancedSuite</code> to run the balanced suite, optionally
+ * with <code>-Dscheduler.workers=N</code>. The first run has no history, so the test fixtures
+ * are distributed in a round-robin fashion; the subsequent runs start with the longest ones.
+ * <p>
+ * The test fixtures run concurrently, so timing-sensitive test fixtures (e.g. the test fixtures
+ * from the performance package comparing durations with a baseline) may fail because of the
+ * increased load.
+ */
+@RunWith(DurationBalancedSuite.class)
+public class AllFixturesBalancedSuite {
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects the classes of this project (i.e. main classes as well as test classes) a class
+ * refers to, directly or transitively. The references are taken from the constant pools of the
+ * class files, which contain the names of all classes a class uses (superclass, interfaces,
+ * instantiated classes, invoked methods, accessed fields, nested classes) as well as the
+ * descriptors and generic signatures of fields and methods and the types of annotations and
+ * their class-valued elements. Classes outside of the given directories (JDK, JUnit, Hamcrest)
+ * are neither recorded nor analyzed.
+ * <p>
+ * In contrast with recording the classes loaded at run-time, the analysis does not require a
+ * separate class loader per test fixture, so shared classes (e.g. singletons) are not loaded
+ * several times. Moreover, classes referenced only in a branch not taken during the last run
+ * are recorded as well.
+ */
+final class ClassReferenceCollector {
+
+	private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+
+	/**
+	 * Matches class names in field and method descriptors and in generic signatures, e.g. the
+	 * name <code>jch/education/junit4sandbox/Point3D</code> in the method descriptor
+	 * <code>(ILjch/education/junit4sandbox/Point3D;)V</code>.
+	 */
+	private static final Pattern DESCRIPTOR_CLASS_NAME = Pattern.compile("L([\\w/$]+)[;<]");
+
+	private final List<Path> classesDirectories;
+
+	ClassReferenceCollector(List<Path> classesDirectories) {
+		this.classesDirectories = classesDirectories;
+	}
+
+	/**
+	 * Returns the names of the given class and of all classes of this project it refers to,
+	 * directly or transitively.
+	 */
+	Set<String> collectReferencedClasses(String className) throws IOException {
+		final Set<String> result = new TreeSet<>();
+		final Deque<String> pending = new ArrayDeque<>();
+		pending.add(className);
+		while (!pending.isEmpty()) {
+			final String current = pending.remove();
+			final Path classFile = findClassFile(current);
+			if (classFile == null || !result.add(current)) {
+				continue;
+			}
+			for (final String referencedClass : readReferencedClassNames(classFile)) {
+				if (!result.contains(referencedClass) && findClassFile(referencedClass) != null) {
+					pending.add(referencedClass);
+				}
+			}
+		}
+		return result;
+	}
+
+	private Path findClassFile(String className) {
+		final String relativePath = className.replace('.', '/') + ".class";
+		for (final Path directory : this.classesDirectories) {
+			final Path classFile = directory.resolve(relativePath);
+			if (Files.exists(classFile)) {
+				return classFile;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the constant pool of the given class file, and returns the names of all classes
+	 * (in the binary form with dots) referenced by it. The result can contain names of classes
+	 * which do not exist at all (e.g. string constants looking like class names); the caller
+	 * is expected to ignore them.
+	 */
+	private static List<String> readReferencedClassNames(Path classFile) throws IOException {
+		try (final InputStream stream = Files.newInputStream(classFile); final DataInputStream input = new DataInputStream(stream)) {
+			if (input.readInt() != CLASS_FILE_MAGIC) {
+				String message = "The file %s is not a class file.";
+				message = String.format(message, classFile);
+				throw new IOException(message);
+			}
+			input.readUnsignedShort(); // minor version
+			input.readUnsignedShort(); // major version
+			final int constantPoolCount = input.readUnsignedShort();
+			final String[] utf8Entries = new String[constantPoolCount];
+			final List<Integer> classEntries = new ArrayList<>();
+			for (int index = 1; index < constantPoolCount; index++) {
+				final int tag = input.readUnsignedByte();
+				switch (tag) {
+				case 1: // Utf8
+					utf8Entries[index] = input.readUTF();
+					break;
+				case 7: // Class
+					classEntries.add(input.readUnsignedShort());
+					break;
+				case 8: // String
+				case 16: // MethodType
+				case 19: // Module
+				case 20: // Package
+					input.skipBytes(2);
+					break;
+				case 15: // MethodHandle
+					input.skipBytes(3);
+					break;
+				case 3: // Integer
+				case 4: // Float
+				case 9: // Fieldref
+				case 10: // Methodref
+				case 11: // InterfaceMethodref
+				case 12: // NameAndType
+				case 17: // Dynamic
+				case 18: // InvokeDynamic
+					input.skipBytes(4);
+					break;
+				case 5: // Long
+				case 6: // Double
+					input.skipBytes(8);
+					// eight-byte constants take two entries of the constant pool
+					index++;
+					break;
+				default:
+					String message = "Unknown constant pool tag %d in the class file %s.";
+					message = String.format(message, tag, classFile);
+					throw new IOException(message);
+				}
+			}
+
+			final List<String> result = new ArrayList<>();
+			for (final int nameIndex : classEntries) {
+				// the name of an array class is a descriptor, which is handled below
+				result.add(utf8Entries[nameIndex].replace('/', '.'));
+			}
+			for (final String entry : utf8Entries) {
+				if (entry == null) {
+					continue;
+				}
+				final Matcher matcher = DESCRIPTOR_CLASS_NAME.matcher(entry);
+				while (matcher.find()) {
+					result.add(matcher.group(1).replace('/', '.'));
+				}
+				// class names used by reflection (e.g. Class.forName) are kept as string constants
+				result.add(entry.replace('/', '.'));
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.Suite.SuiteClasses;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.junit.runners.model.Statement;
+
+import jch.education.junit4sandbox.instrumentation.MeasuredDurations;
+
+/**
+ * Suite runner scheduling the test fixtures according to their historical durations. The
+ * durations of the test fixtures as well as of the particular test methods are measured during
+ * each run and stored in a local file (see {@link DurationHistory}). The durations of all rows
+ * of a parameterized test method are summed up, so the history contains a single entry per
+ * test method. The next run uses them to
+ * distribute the test fixtures among several worker threads so that the longest test fixtures
+ * start first and the workers finish at roughly the same time (longest processing time first
+ * bin packing). Test fixtures without any history (e.g. new test fixtures) are distributed in
+ * a round-robin fashion.
+ * <p>
+ * The test fixtures are either listed by the @SuiteClasses annotation, or (if the annotation is
+ * not present) discovered in the directory the suite class has been loaded from (see
+ * {@link TestFixtureScanner}).
+ * <p>
+ * The following system properties affect the scheduling:
+ * <ul>
+ * <li><code>scheduler.workers</code> is the number of worker threads (by default, the number of
+ * available processors).</li>
+ * <li><code>scheduler.partitions</code> and <code>scheduler.partition</code> split the test
+ * fixtures into the given number of partitions (using the same bin packing) and run only the
+ * partition with the given zero-based index. This is meant for several forked JVMs or several
+ * CI jobs, each of them running one partition. In this mode, the history is only read and never
+ * updated, so all partitions compute the same schedule regardless of the order they finish
+ * in. The history is updated by runs without partitions.</li>
+ * </ul>
+ * Keep in mind that test fixtures running concurrently must not share any mutable state.
+ */
+public class DurationBalancedSuite extends ParentRunner<Runner> {
+
+	private static final String WORKERS_PROPERTY = "scheduler.workers";
+
+	private static final String PARTITIONS_PROPERTY = "scheduler.partitions";
+
+	private static final String PARTITION_PROPERTY = "scheduler.partition";
+
+	private final DurationHistory history;
+
+	private final List<Runner> runners;
+
+	private final boolean partitioned;
+
+	public DurationBalancedSuite(Class<?> klass, RunnerBuilder builder) throws InitializationError {
+		super(klass);
+		try {
+			this.history = DurationHistory.load();
+		} catch (IOException e) {
+			throw new InitializationError(e);
+		}
+		final List<Runner> allRunners = builder.runners(klass, getFixtureClasses(klass));
+		final int partitionCount = Integer.getInteger(PARTITIONS_PROPERTY, 1);
+		final int partition = Integer.getInteger(PARTITION_PROPERTY, 0);
+		if (partitionCount < 1 || partition < 0 || partition >= partitionCount) {
+			String message = "Invalid partition %d of %d partitions.";
+			message = String.format(message, partition, partitionCount);
+			throw new InitializationError(message);
+		}
+		this.runners = new ArrayList<>(schedule(allRunners, partitionCount).get(partition));
+		this.partitioned = partitionCount > 1;
+	}
+
+	private static Class<?>[] getFixtureClasses(Class<?> klass) throws InitializationError {
+		final SuiteClasses annotation = klass.getAnnotation(SuiteClasses.class);
+		if (annotation != null) {
+			return annotation.value();
+		}
+		try {
+			final List<Class<?>> result = new ArrayList<>();
+			for (final String className : TestFixtureScanner.findFixtureClassNames(klass)) {
+				result.add(Class.forName(className, false, klass.getClassLoader()));
+			}
+			return result.toArray(new Class<?>[result.size()]);
+		} catch (IOException | ClassNotFoundException e) {
+			throw new InitializationError(e);
+		}
+	}
+
+	private List<List<Runner>> schedule(List<Runner> runnersToSchedule, int binCount) {
+		return LongestProcessingTimeScheduler.schedule(runnersToSchedule, runner -> this.history.estimateFixtureDuration(getFixtureName(runner)), binCount);
+	}
+
+	private static String getFixtureName(Runner runner) {
+		return runner.getDescription().getClassName();
+	}
+
+	/**
+	 * The children are listed in the order of their scheduling, i.e. the longest test fixtures
+	 * first.
+	 */
+	@Override
+	protected List<Runner> getChildren() {
+		return Collections.unmodifiableList(this.runners);
+	}
+
+	@Override
+	protected Description describeChild(Runner child) {
+		return child.getDescription();
+	}
+
+	@Override
+	protected void runChild(Runner child, RunNotifier notifier) {
+		final long startTime = System.nanoTime();
+		child.run(notifier);
+		this.history.recordFixtureDuration(getFixtureName(child), System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Besides the filtering of the description performed by the parent class, the filtered out
+	 * test fixtures have to be removed from the list of runners to be scheduled as well.
+	 */
+	@Override
+	public void filter(Filter filter) throws NoTestsRemainException {
+		super.filter(filter);
+		final Set<Description> remaining = new HashSet<>(getDescription().getChildren());
+		this.runners.removeIf(runner -> !remaining.contains(runner.getDescription()));
+	}
+
+	@Override
+	protected Statement childrenInvoker(RunNotifier notifier) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				final MethodDurationListener listener = new MethodDurationListener();
+				notifier.addListener(listener);
+				try {
+					runWorkers(notifier);
+				} finally {
+					notifier.removeListener(listener);
+					listener.recordMethodDurations();
+					if (!DurationBalancedSuite.this.partitioned) {
+						DurationBalancedSuite.this.history.store();
+					}
+				}
+			}
+		};
+	}
+
+	private void runWorkers(RunNotifier notifier) throws Throwable {
+		final int workerCount = Math.max(1, Integer.getInteger(WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+		final List<List<Runner>> workerQueues = schedule(this.runners, workerCount);
+		final ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+		try {
+			final List<Future<?>> workers = new ArrayList<>(workerCount);
+			for (final List<Runner> queue : workerQueues) {
+				if (!queue.isEmpty()) {
+					workers.add(executor.submit(() -> queue.forEach(runner -> runChild(runner, notifier))));
+				}
+			}
+			for (final Future<?> worker : workers) {
+				worker.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Measures the durations of the particular test methods. The listener is notified by all
+	 * worker threads concurrently, so the start times are kept in a concurrent map. The rows of
+	 * a parameterized test method are accumulated, and the sum is recorded once at the end of
+	 * the run.
+	 */
+	@RunListener.ThreadSafe
+	private class MethodDurationListener extends RunListener {
+
+		private final Map<Description, Long> startTimes = new ConcurrentHashMap<>();
+
+		private final Map<String, Map<String, Long>> methodDurations = new ConcurrentHashMap<>();
+
+		@Override
+		public void testStarted(Description description) {
+			this.startTimes.put(description, System.nanoTime());
+		}
+
+		@Override
+		public void testFinished(Description description) {
+			final Long startTime = this.startTimes.remove(description);
+			if (startTime != null && description.getMethodName() != null) {
+				final Map<String, Long> fixtureDurations = this.methodDurations.computeIfAbsent(description.getClassName(), name -> new ConcurrentHashMap<>());
+				final long duration = MeasuredDurations.get(description, System.nanoTime() - startTime);
+				fixtureDurations.merge(stripRowName(description.getMethodName()), duration, Long::sum);
+			}
+		}
+
+		void recordMethodDurations() {
+			for (final Map.Entry<String, Map<String, Long>> fixture : this.methodDurations.entrySet()) {
+				for (final Map.Entry<String, Long> method : fixture.getValue().entrySet()) {
+					DurationBalancedSuite.this.history.recordMethodDuration(fixture.getKey(), method.getKey(), method.getValue());
+				}
+			}
+		}
+
+		/**
+		 * Strips the name of the parameter row (e.g. <code>[sqr(2) = 4]</code>) from the given
+		 * method name, so that only the name of the test method remains.
+		 */
+		private String stripRowName(String methodName) {
+			final int rowNameStart = methodName.indexOf('[');
+			return (rowNameStart < 0) ? methodName : methodName.substring(0, rowNameStart);
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Historical durations of test fixtures and test methods, stored in a local file between
+ * test runs. Each new measurement is averaged with the stored duration, so a single outlier
+ * does not distort the history too much. The file is located in the current directory by
+ * default; its location can be overridden using the <code>test.durations.file</code> system
+ * property.
+ */
+public final class DurationHistory {
+
+	private static final String FILE_PROPERTY = "test.durations.file";
+
+	private static final String DEFAULT_FILE = "test-durations.txt";
+
+	private static final String FIXTURE_PREFIX = "fixture";
+
+	private static final String METHOD_PREFIX = "method";
+
+	private final Path file;
+
+	private final ConcurrentMap<String, Long> fixtureDurations = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, Long> methodDurations = new ConcurrentHashMap<>();
+
+	private DurationHistory(Path file) {
+		this.file = file;
+	}
+
+	public static DurationHistory load() throws IOException {
+		final DurationHistory result = new DurationHistory(Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE)));
+		if (!Files.exists(result.file)) {
+			return result;
+		}
+		try (final BufferedReader reader = Files.newBufferedReader(result.file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final String[] fields = line.trim().split("\\s+");
+				if (fields.length != 3) {
+					continue;
+				}
+				final Map<String, Long> durations = FIXTURE_PREFIX.equals(fields[0]) ? result.fixtureDurations : result.methodDurations;
+				durations.put(fields[1], Long.parseLong(fields[2]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the expected duration of the given test fixture in nanoseconds, or -1 if the
+	 * test fixture is unknown. If the duration of the test fixture itself has not been
+	 * recorded, the sum of the durations of its test methods is used.
+	 */
+	public long estimateFixtureDuration(String fixtureName) {
+		final Long fixtureDuration = this.fixtureDurations.get(fixtureName);
+		if (fixtureDuration != null) {
+			return fixtureDuration;
+		}
+		final String methodPrefix = fixtureName + "#";
+		long sum = -1;
+		for (final Map.Entry<String, Long> method : this.methodDurations.entrySet()) {
+			if (method.getKey().startsWith(methodPrefix)) {
+				sum = Math.max(sum, 0) + method.getValue();
+			}
+		}
+		return sum;
+	}
+
+	public void recordFixtureDuration(String fixtureName, long durationNanos) {
+		this.fixtureDurations.merge(fixtureName, durationNanos, DurationHistory::average);
+	}
+
+	public void recordMethodDuration(String fixtureName, String methodName, long durationNanos) {
+		this.methodDurations.merge(fixtureName + "#" + methodName, durationNanos, DurationHistory::average);
+	}
+
+	private static long average(long storedDuration, long measuredDuration) {
+		return (storedDuration + measuredDuration) / 2;
+	}
+
+	public void store() throws IOException {
+		if (this.file.getParent() != null) {
+			Files.createDirectories(this.file.getParent());
+		}
+		try (final Writer writer = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8)) {
+			for (final Map.Entry<String, Long> fixture : new TreeMap<>(this.fixtureDurations).entrySet()) {
+				writer.write(FIXTURE_PREFIX + " " + fixture.getKey() + " " + fixture.getValue() + "\n");
+			}
+			for (final Map.Entry<String, Long> method : new TreeMap<>(this.methodDurations).entrySet()) {
+				writer.write(METHOD_PREFIX + " " + method.getKey() + " " + method.getValue() + "\n");
+			}
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.internal.builders.AllDefaultPossibilitiesBuilder;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+
+/**
+ * Suite runner executing only the test fixtures affected by changes made since their last
+ * successful run. When a test fixture passes, the runner collects the classes of this project
+ * (e.g. SquareRoot, Point3D, TroubleMaker, but also the test fixture itself, its helper classes
+ * and its runner) the test fixture refers to, directly or transitively (see
+ * {@link ClassReferenceCollector}). The test fixtures are loaded by the ordinary class loader,
+ * so they share the infrastructure classes with the rest of the test run. The fingerprints of
+ * the collected classes are stored in a local index file (see {@link TestSelectionIndex}).
+ * During a subsequent run, a test fixture is only executed if some of the classes it depends
+ * on has changed, or if it failed during the previous run. In order
+ * to benefit from this, use <code>mvn test</code> rather than <code>mvn clean test</code>; the
+ * index file is not affected by <code>mvn clean</code> anyway, as the fingerprints are based on
+ * the content of the class files rather than on their timestamps.
+ * <p>
+ * The test fixtures are discovered in the directory the suite class has been loaded from (see
+ * {@link TestFixtureScanner}). The main classes are expected in the <code>classes</code>
+ * directory next to it; the location can be overridden using the
+ * <code>test.selection.main.classes</code> system property. Set the
+ * <code>test.selection.all</code> system property to true in order to execute all test
+ * fixtures (and to rebuild the index).
+ * <p>
+ * Keep in mind that the dependencies are derived from the class files. A dependency on a
+ * resource file or on a class loaded by reflection using a computed name is not recorded.
+ */
+public class IncrementalSuite extends ParentRunner<Runner> {
+
+	private static final String MAIN_CLASSES_PROPERTY = "test.selection.main.classes";
+
+	private static final String ALL_FIXTURES_PROPERTY = "test.selection.all";
+
+	private final TestSelectionIndex index;
+
+	private final List<Runner> runners = new ArrayList<>();
+
+	private final ClassReferenceCollector referenceCollector;
+
+	public IncrementalSuite(Class<?> klass) throws InitializationError {
+		super(klass);
+		try {
+			final Path testClassesDirectory = TestFixtureScanner.getClassesDirectory(klass);
+			final Path mainClassesDirectory = Paths.get(System.getProperty(MAIN_CLASSES_PROPERTY, testClassesDirectory.resolveSibling("classes").toString()));
+			final List<Path> classesDirectories = Arrays.asList(mainClassesDirectory, testClassesDirectory);
+			this.index = TestSelectionIndex.load(classesDirectories);
+			this.referenceCollector = new ClassReferenceCollector(classesDirectories);
+
+			final List<String> fixtureNames = TestFixtureScanner.findFixtureClassNames(klass);
+			final boolean allFixtures = Boolean.getBoolean(ALL_FIXTURES_PROPERTY);
+			for (final String fixtureName : fixtureNames) {
+				if (allFixtures || this.index.isAffected(fixtureName)) {
+					addRunner(fixtureName, klass.getClassLoader());
+				}
+			}
+			System.out.printf("Incremental test selection: %d of %d test fixtures affected.%n", this.runners.size(), fixtureNames.size());
+		} catch (IOException | ClassNotFoundException e) {
+			throw new InitializationError(e);
+		}
+	}
+
+	private void addRunner(String fixtureName, ClassLoader classLoader) throws ClassNotFoundException, InitializationError {
+		final Class<?> fixtureClass = Class.forName(fixtureName, false, classLoader);
+		final Runner runner;
+		try {
+			runner = new AllDefaultPossibilitiesBuilder(true).runnerForClass(fixtureClass);
+		} catch (Throwable e) {
+			throw new InitializationError(e);
+		}
+		this.runners.add(runner);
+	}
+
+	@Override
+	protected List<Runner> getChildren() {
+		return Collections.unmodifiableList(this.runners);
+	}
+
+	@Override
+	protected Description describeChild(Runner child) {
+		return child.getDescription();
+	}
+
+	@Override
+	protected Statement childrenInvoker(RunNotifier notifier) {
+		final Statement children = super.childrenInvoker(notifier);
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				try {
+					children.evaluate();
+				} finally {
+					IncrementalSuite.this.index.store();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Runs the given test fixture, and updates the index according to the outcome.
+	 */
+	@Override
+	protected void runChild(Runner child, RunNotifier notifier) {
+		final FailureDetector failureDetector = new FailureDetector();
+		notifier.addListener(failureDetector);
+		try {
+			child.run(notifier);
+		} finally {
+			notifier.removeListener(failureDetector);
+		}
+
+		final String fixtureName = child.getDescription().getClassName();
+		if (failureDetector.failed) {
+			this.index.recordFailed(fixtureName);
+		} else {
+			try {
+				this.index.recordPassed(fixtureName, this.referenceCollector.collectReferencedClasses(fixtureName));
+			} catch (IOException e) {
+				// the test fixture will simply be executed again next time
+				this.index.recordFailed(fixtureName);
+			}
+		}
+	}
+
+	private static class FailureDetector extends RunListener {
+
+		private volatile boolean failed = false;
+
+		@Override
+		public void testFailure(Failure failure) {
+			this.failed = true;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+
+/**
+ * Longest processing time first (LPT) scheduling: the items with known durations are sorted
+ * by their durations in descending order, and each of them is assigned to the bin with the
+ * lowest total duration so far. Items whose duration is unknown (negative estimate) are
+ * distributed among the bins in a round-robin fashion afterwards.
+ */
+final class LongestProcessingTimeScheduler {
+
+	/**
+	 * Avoids instantiation of this utility class.
+	 */
+	private LongestProcessingTimeScheduler() {}
+
+	static <T> List<List<T>> schedule(List<T> items, ToLongFunction<T> estimate, int binCount) {
+		final List<List<T>> bins = new ArrayList<>(binCount);
+		final PriorityQueue<Bin> binsByLoad = new PriorityQueue<>(Comparator.comparingLong((Bin bin) -> bin.load).thenComparingInt(bin -> bin.index));
+		for (int index = 0; index < binCount; index++) {
+			bins.add(new ArrayList<>());
+			binsByLoad.add(new Bin(index));
+		}
+
+		final List<T> knownItems = new ArrayList<>();
+		final List<T> unknownItems = new ArrayList<>();
+		for (final T item : items) {
+			(estimate.applyAsLong(item) >= 0 ? knownItems : unknownItems).add(item);
+		}
+		knownItems.sort(Comparator.comparingLong(estimate).reversed());
+
+		for (final T item : knownItems) {
+			final Bin bin = binsByLoad.poll();
+			bins.get(bin.index).add(item);
+			bin.load += estimate.applyAsLong(item);
+			binsByLoad.add(bin);
+		}
+		for (int index = 0; index < unknownItems.size(); index++) {
+			bins.get(index % binCount).add(unknownItems.get(index));
+		}
+		return bins;
+	}
+
+	private static class Bin {
+
+		private final int index;
+
+		private long load = 0;
+
+		Bin(int index) {
+			this.index = index;
+		}
+	}
+}
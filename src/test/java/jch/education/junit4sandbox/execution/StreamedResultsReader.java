@@ -0,0 +1,240 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Command line tool (as well as a utility class) aggregating the results written by the
+ * {@link StreamingResultListener}. The file is processed line by line, so the memory needed
+ * does not depend on the number of test cases, but only on the number of test fixtures and
+ * failures. The summary contains the number of test cases per status, the slowest test
+ * fixtures and test cases, and the failures.
+ * <p>
+ * Usage: <code>StreamedResultsReader [&lt;results-file&gt;]</code>, the default file is
+ * <code>target/test-results.ndjson</code>.
+ */
+public class StreamedResultsReader {
+
+	private static final String DEFAULT_INPUT_FILE = "target/test-results.ndjson";
+
+	private static final int TOP_COUNT = 10;
+
+	private final Map<TestStatus, Long> statusCounts = new EnumMap<>(TestStatus.class);
+
+	private final Map<String, FixtureSummary> fixtures = new HashMap<>();
+
+	private final PriorityQueue<Map<String, String>> slowestTests = new PriorityQueue<>(Comparator.comparingLong(StreamedResultsReader::getDuration));
+
+	private final List<Map<String, String>> failures = new ArrayList<>();
+
+	private long totalDurationNanos = 0;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length > 1) {
+			System.err.println("Usage: StreamedResultsReader [<results-file>]");
+			System.exit(1);
+		}
+		final Path file = Paths.get(args.length == 0 ? DEFAULT_INPUT_FILE : args[0]);
+		read(file).printSummary(System.out);
+	}
+
+	public static StreamedResultsReader read(Path file) throws IOException {
+		final StreamedResultsReader result = new StreamedResultsReader();
+		try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.trim().isEmpty()) {
+					result.add(parse(line));
+				}
+			}
+		}
+		return result;
+	}
+
+	private void add(Map<String, String> testResult) {
+		final TestStatus status = TestStatus.valueOf(testResult.get("status"));
+		final long duration = getDuration(testResult);
+		this.statusCounts.merge(status, 1L, Long::sum);
+		this.totalDurationNanos += duration;
+		this.fixtures.computeIfAbsent(testResult.get("class"), FixtureSummary::new).add(duration);
+
+		this.slowestTests.add(testResult);
+		if (this.slowestTests.size() > TOP_COUNT) {
+			this.slowestTests.poll();
+		}
+		if (status == TestStatus.FAILED) {
+			this.failures.add(testResult);
+		}
+	}
+
+	private static long getDuration(Map<String, String> testResult) {
+		return Long.parseLong(testResult.get("durationNanos"));
+	}
+
+	public long getCount(TestStatus status) {
+		return this.statusCounts.getOrDefault(status, 0L);
+	}
+
+	public int getFailureCount() {
+		return this.failures.size();
+	}
+
+	public void printSummary(PrintStream output) {
+		long totalCount = 0;
+		for (final long count : this.statusCounts.values()) {
+			totalCount += count;
+		}
+		output.printf("%d test cases, total duration %.3f s%n", totalCount, toMillis(this.totalDurationNanos) / 1000.0);
+		for (final TestStatus status : TestStatus.values()) {
+			output.printf("  %-17s %d%n", status, getCount(status));
+		}
+
+		output.println("Slowest test fixtures:");
+		final List<FixtureSummary> fixtureList = new ArrayList<>(this.fixtures.values());
+		fixtureList.sort(Comparator.comparingLong((FixtureSummary fixture) -> fixture.durationNanos).reversed());
+		for (final FixtureSummary fixture : fixtureList.subList(0, Math.min(TOP_COUNT, fixtureList.size()))) {
+			output.printf("  %10.3f ms  %s (%d test cases)%n", toMillis(fixture.durationNanos), fixture.name, fixture.testCount);
+		}
+
+		output.println("Slowest test cases:");
+		final List<Map<String, String>> slowestList = new ArrayList<>(this.slowestTests);
+		slowestList.sort(Comparator.comparingLong(StreamedResultsReader::getDuration).reversed());
+		for (final Map<String, String> test : slowestList) {
+			output.printf("  %10.3f ms  %s%n", toMillis(getDuration(test)), test.get("name"));
+		}
+
+		output.println("Failures:");
+		for (final Map<String, String> failure : this.failures) {
+			output.printf("  %s%n    %s%n", failure.get("name"), failure.get("message"));
+		}
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	/**
+	 * Parses a single line written by the {@link StreamingResultListener}. The format is a flat
+	 * JSON object with string and number values only, so a fully-fledged JSON parser is not
+	 * needed.
+	 */
+	static Map<String, String> parse(String line) {
+		final Map<String, String> result = new HashMap<>();
+		int position = line.indexOf('{') + 1;
+		while (position < line.length()) {
+			final char c = line.charAt(position);
+			if (c == '}') {
+				return result;
+			}
+			if (c == ',' || Character.isWhitespace(c)) {
+				position++;
+				continue;
+			}
+			final StringBuilder key = new StringBuilder();
+			position = parseString(line, position, key);
+			position = line.indexOf(':', position) + 1;
+			while (Character.isWhitespace(line.charAt(position))) {
+				position++;
+			}
+			final StringBuilder value = new StringBuilder();
+			if (line.charAt(position) == '"') {
+				position = parseString(line, position, value);
+			} else {
+				while (position < line.length() && ",}".indexOf(line.charAt(position)) < 0) {
+					value.append(line.charAt(position++));
+				}
+				value.setLength(value.toString().trim().length());
+			}
+			result.put(key.toString(), value.toString());
+		}
+		String message = "Incomplete test result: %s";
+		message = String.format(message, line);
+		throw new IllegalArgumentException(message);
+	}
+
+	/**
+	 * Parses the string literal starting at the given position, appends its (unescaped) value
+	 * to the given builder, and returns the position after the closing quotes.
+	 */
+	private static int parseString(String line, int position, StringBuilder value) {
+		if (line.charAt(position) != '"') {
+			String message = "String literal expected at position %d: %s";
+			message = String.format(message, position, line);
+			throw new IllegalArgumentException(message);
+		}
+		position++;
+		while (line.charAt(position) != '"') {
+			char c = line.charAt(position++);
+			if (c == '\\') {
+				c = line.charAt(position++);
+				switch (c) {
+				case 'u':
+					c = (char) Integer.parseInt(line.substring(position, position + 4), 16);
+					position += 4;
+					break;
+				case 'n':
+					c = '\n';
+					break;
+				case 't':
+					c = '\t';
+					break;
+				case 'r':
+					c = '\r';
+					break;
+				default:
+					break;
+				}
+			}
+			value.append(c);
+		}
+		return position + 1;
+	}
+
+	private static class FixtureSummary {
+
+		private final String name;
+
+		private long testCount = 0;
+
+		private long durationNanos = 0;
+
+		FixtureSummary(String name) {
+			this.name = name;
+		}
+
+		void add(long duration) {
+			this.testCount++;
+			this.durationNanos += duration;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.JUnitCore;
+
+/**
+ * This experimental test fixture illustrates the {@link StreamingResultListener} and the
+ * {@link StreamedResultsReader}. It runs a sample test fixture (nested class, therefore not
+ * executed by surefire directly) with a listener writing to a temporary file, and verifies
+ * the aggregated results.
+ */
+public class StreamedResultsTestFixture {
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void resultsOfAllTestCasesAreStreamedToFile() throws IOException {
+		final Path resultsFile = this.temporaryFolder.getRoot().toPath().resolve("results.ndjson");
+		final JUnitCore core = new JUnitCore();
+		core.addListener(new StreamingResultListener(resultsFile));
+		core.run(SampleFixture.class);
+
+		final StreamedResultsReader results = StreamedResultsReader.read(resultsFile);
+		assertEquals(2, results.getCount(TestStatus.PASSED));
+		assertEquals(1, results.getCount(TestStatus.FAILED));
+		assertEquals(1, results.getCount(TestStatus.ASSUMPTION_FAILED));
+		assertEquals(1, results.getCount(TestStatus.IGNORED));
+	}
+
+	@Test
+	public void escapedValuesAreParsedProperly() {
+		final String line = "{\"name\":\"a\\\"b\\\\c\",\"status\":\"FAILED\",\"durationNanos\":42,\"message\":\"\\u000aExpected: 11\"}";
+		assertEquals("a\"b\\c", StreamedResultsReader.parse(line).get("name"));
+		assertEquals("42", StreamedResultsReader.parse(line).get("durationNanos"));
+		assertEquals("\nExpected: 11", StreamedResultsReader.parse(line).get("message"));
+	}
+
+	public static class SampleFixture {
+
+		@Test
+		public void passingTest() {}
+
+		@Test
+		public void anotherPassingTest() {}
+
+		@Test
+		public void failingTest() {
+			assertEquals(11, 10);
+		}
+
+		@Test
+		public void testWithViolatedAssumption() {
+			assumeTrue(false);
+		}
+
+		@Ignore
+		@Test
+		public void ignoredTest() {}
+	}
+}
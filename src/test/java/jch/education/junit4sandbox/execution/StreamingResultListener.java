@@ -0,0 +1,267 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunListener.ThreadSafe;
+
+import jch.education.junit4sandbox.instrumentation.Json;
+import jch.education.junit4sandbox.instrumentation.MeasuredDurations;
+
+/**
+ * Run listener streaming the result of each and every test case to a file as soon as the test
+ * case finishes. Surefire keeps the results of a test fixture in memory and writes its XML
+ * report when the test fixture finishes, which is a problem for parametrized test fixtures with
+ * millions of rows; moreover, the XML report does not show any progress until then. This
+ * listener only keeps the test cases currently running, and writes one JSON object per line
+ * (NDJSON) with the name, the duration, the status and the failure message of a test case.
+ * The lines are collected in a buffer and written through a file channel whenever the buffer is
+ * full. Besides that, a daemon thread flushes the buffer once per second, so the progress can
+ * be watched using <code>tail -f</code> even while a slow test case (or a long setup of a test
+ * fixture) is running. Use {@link StreamedResultsReader} to aggregate the results.
+ * <p>
+ * The listener is registered with the Surefire plugin in the POM. The location of the output
+ * file can be overridden using the <code>test.results.file</code> system property.
+ */
+@ThreadSafe
+public class StreamingResultListener extends RunListener {
+
+	private static final String OUTPUT_FILE_PROPERTY = "test.results.file";
+
+	private static final String DEFAULT_OUTPUT_FILE = "target/test-results.ndjson";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+	private final Path outputFile;
+
+	private final ConcurrentMap<Description, RunningTest> runningTests = new ConcurrentHashMap<>();
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	private FileChannel channel;
+
+	private boolean fileCreated = false;
+
+	private Thread shutdownHook;
+
+	private ScheduledExecutorService flusher;
+
+	public StreamingResultListener() {
+		this(Paths.get(System.getProperty(OUTPUT_FILE_PROPERTY, DEFAULT_OUTPUT_FILE)));
+	}
+
+	StreamingResultListener(Path outputFile) {
+		this.outputFile = outputFile;
+	}
+
+	@Override
+	public void testStarted(Description description) {
+		this.runningTests.put(description, new RunningTest(System.nanoTime()));
+	}
+
+	@Override
+	public void testFailure(Failure failure) {
+		recordFailure(failure, TestStatus.FAILED);
+	}
+
+	@Override
+	public void testAssumptionFailure(Failure failure) {
+		recordFailure(failure, TestStatus.ASSUMPTION_FAILED);
+	}
+
+	/**
+	 * Failures of a test fixture as a whole (e.g. a failing @BeforeClass method) are not
+	 * preceded by any start notification, so they are written immediately.
+	 */
+	private void recordFailure(Failure failure, TestStatus status) {
+		final String message = getMessage(failure);
+		final RunningTest test = this.runningTests.get(failure.getDescription());
+		if (test == null) {
+			write(failure.getDescription(), status, 0, message);
+		} else {
+			test.status = status;
+			test.message = message;
+		}
+	}
+
+	private static String getMessage(Failure failure) {
+		final Throwable exception = failure.getException();
+		if (exception == null) {
+			return failure.getMessage();
+		}
+		return exception.getMessage() == null ? exception.getClass().getName() : exception.getClass().getName() + ": " + exception.getMessage();
+	}
+
+	@Override
+	public void testFinished(Description description) {
+		final RunningTest test = this.runningTests.remove(description);
+		if (test != null) {
+			write(description, test.status, MeasuredDurations.get(description, System.nanoTime() - test.startTime), test.message);
+		}
+	}
+
+	@Override
+	public void testIgnored(Description description) {
+		write(description, TestStatus.IGNORED, 0, null);
+	}
+
+	@Override
+	public synchronized void testRunFinished(Result result) throws IOException {
+		if (this.channel != null) {
+			Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+			close();
+			System.out.println("Test results streamed to " + this.outputFile.toAbsolutePath());
+		}
+	}
+
+	private synchronized void write(Description description, TestStatus status, long durationNanos, String message) {
+		final StringBuilder line = new StringBuilder(128);
+		line.append("{\"name\":").append(Json.quote(description.getDisplayName()));
+		line.append(",\"class\":").append(Json.quote(description.getClassName()));
+		if (description.getMethodName() != null) {
+			line.append(",\"method\":").append(Json.quote(description.getMethodName()));
+		}
+		line.append(",\"status\":").append(Json.quote(status.name()));
+		line.append(",\"durationNanos\":").append(durationNanos);
+		if (message != null) {
+			line.append(",\"message\":").append(Json.quote(message));
+		}
+		line.append("}\n");
+		final byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+
+		try {
+			if (this.channel == null) {
+				open();
+			}
+			if (bytes.length > this.buffer.remaining()) {
+				flush();
+			}
+			if (bytes.length > this.buffer.remaining()) {
+				writeFully(ByteBuffer.wrap(bytes));
+			} else {
+				this.buffer.put(bytes);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Opens the output file when the first result is to be written. Some test runners notify
+	 * the start of the test run several times, so the file cannot be opened there. The file is
+	 * closed when the test run finishes; results written afterwards (e.g. if the end of the
+	 * test run is notified several times as well) are appended. As the notification about the
+	 * end of the test run is not reliable, a shutdown hook closes the file as a fallback.
+	 */
+	private void open() throws IOException {
+		if (this.outputFile.getParent() != null) {
+			Files.createDirectories(this.outputFile.getParent());
+		}
+		final StandardOpenOption mode = this.fileCreated ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+		this.channel = FileChannel.open(this.outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode);
+		this.fileCreated = true;
+		this.shutdownHook = new Thread(this::closeOnShutdown, "streaming-result-listener-shutdown");
+		Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+		this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "streaming-result-listener-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.flusher.scheduleWithFixedDelay(this::flushPeriodically, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	private void flush() throws IOException {
+		this.buffer.flip();
+		writeFully(this.buffer);
+		this.buffer.clear();
+	}
+
+	private synchronized void flushPeriodically() {
+		if (this.channel == null || this.buffer.position() == 0) {
+			return;
+		}
+		try {
+			flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void writeFully(ByteBuffer source) throws IOException {
+		while (source.hasRemaining()) {
+			this.channel.write(source);
+		}
+	}
+
+	private void close() throws IOException {
+		this.flusher.shutdown();
+		this.flusher = null;
+		try {
+			flush();
+		} finally {
+			this.channel.close();
+			this.channel = null;
+			this.shutdownHook = null;
+		}
+	}
+
+	private synchronized void closeOnShutdown() {
+		if (this.channel == null) {
+			return;
+		}
+		try {
+			close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static class RunningTest {
+
+		private final long startTime;
+
+		private volatile TestStatus status = TestStatus.PASSED;
+
+		private volatile String message;
+
+		RunningTest(long startTime) {
+			this.startTime = startTime;
+		}
+	}
+}
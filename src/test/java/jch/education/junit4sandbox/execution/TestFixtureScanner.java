@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Discovers test fixtures, i.e. classes whose names end with <code>TestFixture</code>, in the
+ * directory a suite class has been loaded from. This corresponds to the surefire configuration
+ * in our pom.xml, including the test fixtures excluded there.
+ */
+final class TestFixtureScanner {
+
+	private static final String FIXTURE_SUFFIX = "TestFixture";
+
+	private static final String CLASS_FILE_SUFFIX = ".class";
+
+	/**
+	 * Test fixtures excluded from the surefire includes in our pom.xml, as they are meant to be
+	 * executed on demand only.
+	 */
+	private static final Set<String> EXCLUDED_FIXTURES = Collections.singleton("jch.education.junit4sandbox.performance.PerformanceRegressionTestFixture");
+
+	/**
+	 * Avoids instantiation of this utility class.
+	 */
+	private TestFixtureScanner() {}
+
+	static Path getClassesDirectory(Class<?> klass) throws IOException {
+		try {
+			return Paths.get(klass.getProtectionDomain().getCodeSource().getLocation().toURI());
+		} catch (URISyntaxException e) {
+			throw new IOException(e);
+		}
+	}
+
+	static List<String> findFixtureClassNames(Class<?> suiteClass) throws IOException {
+		final Path root = getClassesDirectory(suiteClass);
+		final String separator = root.getFileSystem().getSeparator();
+		try (final Stream<Path> files = Files.walk(root)) {
+			return files
+					.map(file -> root.relativize(file).toString())
+					.filter(name -> name.endsWith(FIXTURE_SUFFIX + CLASS_FILE_SUFFIX))
+					.map(name -> name.substring(0, name.length() - CLASS_FILE_SUFFIX.length()).replace(separator, "."))
+					.filter(name -> !EXCLUDED_FIXTURES.contains(name))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+}
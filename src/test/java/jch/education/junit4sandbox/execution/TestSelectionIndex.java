@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.execution;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index used by the {@link IncrementalSuite} runner. For each test fixture which passed during
+ * a previous run, the index keeps the fingerprints (SHA-256 digests of the class files) of all
+ * classes of this project the test fixture refers to. A test fixture has to be executed again if
+ * any of these classes has changed (or disappeared) since then. Test fixtures which failed are
+ * not kept in the index at all, so they are executed until they pass.
+ * <p>
+ * The index file is located in the current directory by default; its location can be
+ * overridden using the <code>test.selection.index.file</code> system property.
+ */
+final class TestSelectionIndex {
+
+	private static final String FILE_PROPERTY = "test.selection.index.file";
+
+	private static final String DEFAULT_FILE = "test-selection-index.txt";
+
+	private static final String NO_FINGERPRINT = "-";
+
+	private final Path file;
+
+	private final List<Path> classesDirectories;
+
+	private final Map<String, Map<String, String>> fixtureDependencies = new TreeMap<>();
+
+	private final Map<String, String> currentFingerprints = new HashMap<>();
+
+	private TestSelectionIndex(Path file, List<Path> classesDirectories) {
+		this.file = file;
+		this.classesDirectories = classesDirectories;
+	}
+
+	static TestSelectionIndex load(List<Path> classesDirectories) throws IOException {
+		final TestSelectionIndex result = new TestSelectionIndex(Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE)), classesDirectories);
+		if (!Files.exists(result.file)) {
+			return result;
+		}
+		try (final BufferedReader reader = Files.newBufferedReader(result.file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final String[] fields = line.trim().split("\\s+");
+				if (fields.length < 2) {
+					continue;
+				}
+				final Map<String, String> dependencies = new TreeMap<>();
+				for (int index = 1; index < fields.length; index++) {
+					final int separatorIndex = fields[index].indexOf('=');
+					dependencies.put(fields[index].substring(0, separatorIndex), fields[index].substring(separatorIndex + 1));
+				}
+				result.fixtureDependencies.put(fields[0], dependencies);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if the given test fixture has to be executed, i.e. if it is not present in the
+	 * index, or if at least one of the classes it depends on has changed.
+	 */
+	boolean isAffected(String fixtureName) throws IOException {
+		final Map<String, String> dependencies = this.fixtureDependencies.get(fixtureName);
+		if (dependencies == null) {
+			return true;
+		}
+		for (final Map.Entry<String, String> dependency : dependencies.entrySet()) {
+			if (!dependency.getValue().equals(getFingerprint(dependency.getKey()))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	void recordPassed(String fixtureName, Set<String> referencedClasses) throws IOException {
+		final Map<String, String> dependencies = new TreeMap<>();
+		for (final String className : referencedClasses) {
+			dependencies.put(className, getFingerprint(className));
+		}
+		this.fixtureDependencies.put(fixtureName, dependencies);
+	}
+
+	void recordFailed(String fixtureName) {
+		this.fixtureDependencies.remove(fixtureName);
+	}
+
+	private String getFingerprint(String className) throws IOException {
+		String result = this.currentFingerprints.get(className);
+		if (result == null) {
+			result = computeFingerprint(className);
+			this.currentFingerprints.put(className, result);
+		}
+		return result;
+	}
+
+	private String computeFingerprint(String className) throws IOException {
+		final String relativePath = className.replace('.', '/') + ".class";
+		for (final Path directory : this.classesDirectories) {
+			final Path classFile = directory.resolve(relativePath);
+			if (Files.exists(classFile)) {
+				return toHexString(digest(Files.readAllBytes(classFile)));
+			}
+		}
+		return NO_FINGERPRINT;
+	}
+
+	private static byte[] digest(byte[] content) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(content);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHexString(byte[] bytes) {
+		final StringBuilder result = new StringBuilder(2 * bytes.length);
+		for (final byte value : bytes) {
+			result.append(Character.forDigit((value >> 4) & 0xF, 16));
+			result.append(Character.forDigit(value & 0xF, 16));
+		}
+		return result.toString();
+	}
+
+	void store() throws IOException {
+		if (this.file.getParent() != null) {
+			Files.createDirectories(this.file.getParent());
+		}
+		try (final Writer writer = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8)) {
+			for (final Map.Entry<String, Map<String, String>> fixture : this.fixtureDependencies.entrySet()) {
+				writer.write(fixture.getKey());
+				for (final Map.Entry<String, String> dependency : fixture.getValue().entrySet()) {
+					writer.write(" " + dependency.getKey() + "=" + dependency.getValue());
+				}
+				writer.write("\n");
+			}
+		}
+	}
+}
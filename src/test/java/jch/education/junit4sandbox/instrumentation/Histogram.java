@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Low-overhead histogram of non-negative long values (typically durations in nanoseconds).
+ * The values are counted in logarithmic buckets, each power of two being split into 16
+ * linear sub-buckets, so the relative error of the reported percentiles is at most 6.25%
+ * regardless of the magnitude of the values. Recording a value means just a few bit
+ * operations and an atomic increment, without any allocation or locking, so a single
+ * instance can be shared by several threads. The minimum and the maximum are tracked exactly.
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	private final AtomicLong totalCount = new AtomicLong();
+
+	private final AtomicLong sum = new AtomicLong();
+
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	public void record(long value) {
+		record(value, 1);
+	}
+
+	/**
+	 * Records the given value the given number of times.
+	 */
+	public void record(long value, long count) {
+		if (value < 0) {
+			String message = "Negative value %d cannot be recorded.";
+			message = String.format(message, value);
+			throw new IllegalArgumentException(message);
+		}
+		this.counts.addAndGet(bucketIndex(value), count);
+		this.totalCount.addAndGet(count);
+		this.sum.addAndGet(value * count);
+		this.min.accumulateAndGet(value, Math::min);
+		this.max.accumulateAndGet(value, Math::max);
+	}
+
+	public long getCount() {
+		return this.totalCount.get();
+	}
+
+	public long getMin() {
+		return (getCount() == 0) ? 0 : this.min.get();
+	}
+
+	public long getMax() {
+		return (getCount() == 0) ? 0 : this.max.get();
+	}
+
+	public double getMean() {
+		final long count = getCount();
+		return (count == 0) ? 0 : (double) this.sum.get() / count;
+	}
+
+	/**
+	 * Returns the value at the given percentile (e.g. 99.9), more precisely the upper bound of
+	 * the bucket containing the value (but never more than the maximum).
+	 */
+	public long getValueAtPercentile(double percentile) {
+		final long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long cumulativeCount = 0;
+		for (int index = 0; index < BUCKET_COUNT; index++) {
+			cumulativeCount += this.counts.get(index);
+			if (cumulativeCount >= rank) {
+				return Math.min(upperBound(index), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		final int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		final int shift = highestBit - SUB_BUCKET_BITS;
+		final int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+		return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	static long upperBound(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		final int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+		final long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+		final long lowerBound = (SUB_BUCKET_COUNT + subBucket) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+/**
+ * Utility methods for writing JSON documents, used by the run listeners exporting their
+ * results in JSON format.
+ */
+public final class Json {
+
+	/**
+	 * Avoids instantiation of this utility class.
+	 */
+	private Json() {}
+
+	/**
+	 * Returns the given value as a JSON string literal, i.e. enclosed in double quotes, with
+	 * quotes, backslashes and control characters escaped.
+	 */
+	public static String quote(String value) {
+		final StringBuilder result = new StringBuilder("\"");
+		for (final char c : value.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				result.append('\\').append(c);
+			} else if (c < 0x20) {
+				result.append(String.format("\\u%04x", (int) c));
+			} else {
+				result.append(c);
+			}
+		}
+		return result.append('"').toString();
+	}
+}
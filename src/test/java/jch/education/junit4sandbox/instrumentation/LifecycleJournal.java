@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous journal of life-cycle events. Tracing the life-cycle of a test fixture by
+ * writing to stdout directly from the setup/tear-down methods distorts the very thing it
+ * illustrates: each write is synchronous, and it involves formatting of the message. This
+ * journal just stores the event (timestamp, phase, method, test and instance ID) to a slot
+ * of a preallocated ring buffer, which involves neither locking nor allocation. A background
+ * thread drains the ring buffer in batches, formats the events and writes them to stdout (or
+ * to the file specified by the <code>lifecycle.journal.file</code> system property). While
+ * there is nothing to drain, the background thread is parked, so an idle journal does not
+ * consume any CPU time; a producer only unparks it if it has announced that it is idle.
+ * <p>
+ * The ring buffer supports several concurrent producers. A producer claims a sequence number,
+ * fills the corresponding slot, and publishes the slot by storing the sequence number to it.
+ * If the ring buffer is full, the producer waits until the background thread frees a slot,
+ * so no event is ever lost. The order of the events in the output corresponds to the order
+ * in which the sequence numbers have been claimed.
+ */
+public final class LifecycleJournal {
+
+	private static final String OUTPUT_FILE_PROPERTY = "lifecycle.journal.file";
+
+	private static final int CAPACITY = 4096;
+
+	private static final int MAX_BATCH_SIZE = 256;
+
+	/**
+	 * Park time of a producer waiting for a free slot, or of a thread waiting for a flush.
+	 */
+	private static final long WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private static final int NO_INSTANCE = -1;
+
+	private static final LifecycleJournal INSTANCE = new LifecycleJournal(createOutput());
+
+	private final long[] timestamps = new long[CAPACITY];
+
+	private final LifecyclePhase[] phases = new LifecyclePhase[CAPACITY];
+
+	private final String[] methods = new String[CAPACITY];
+
+	private final String[] tests = new String[CAPACITY];
+
+	private final int[] instanceIds = new int[CAPACITY];
+
+	/**
+	 * For each slot, the sequence number of the event stored in the slot plus one (zero means
+	 * the slot has never been published).
+	 */
+	private final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+
+	private final AtomicLong claimed = new AtomicLong();
+
+	private volatile long consumed = 0;
+
+	private final long startTime = System.nanoTime();
+
+	private final PrintStream output;
+
+	private final Thread drainer;
+
+	/**
+	 * True if the background thread has found the ring buffer empty and is about to park (or
+	 * parked). Both this flag and the published sequence numbers are accessed with volatile
+	 * semantics, so either the background thread sees a newly published event, or the producer
+	 * sees the flag and unparks the background thread.
+	 */
+	private volatile boolean drainerIdle = false;
+
+	private LifecycleJournal(PrintStream output) {
+		this.output = output;
+		this.drainer = new Thread(this::drain, "lifecycle-journal");
+		this.drainer.setDaemon(true);
+		this.drainer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "lifecycle-journal-flush"));
+	}
+
+	public static LifecycleJournal getInstance() {
+		return INSTANCE;
+	}
+
+	private static PrintStream createOutput() {
+		final String outputFile = System.getProperty(OUTPUT_FILE_PROPERTY);
+		if (outputFile == null) {
+			return System.out;
+		}
+		try {
+			return new PrintStream(new FileOutputStream(outputFile), false, StandardCharsets.UTF_8.name());
+		} catch (final IOException e) {
+			throw new IllegalStateException("Cannot open the journal file " + outputFile, e);
+		}
+	}
+
+	public void record(LifecyclePhase phase, String method, String test) {
+		record(phase, method, test, NO_INSTANCE);
+	}
+
+	public void record(LifecyclePhase phase, String method, String test, int instanceId) {
+		final long timestamp = System.nanoTime();
+		final long sequence = this.claimed.getAndIncrement();
+		while (sequence - this.consumed >= CAPACITY) {
+			LockSupport.parkNanos(WAIT_PARK_NANOS);
+		}
+		final int slot = (int) (sequence & (CAPACITY - 1));
+		this.timestamps[slot] = timestamp;
+		this.phases[slot] = phase;
+		this.methods[slot] = method;
+		this.tests[slot] = test;
+		this.instanceIds[slot] = instanceId;
+		this.published.set(slot, sequence + 1);
+		if (this.drainerIdle) {
+			LockSupport.unpark(this.drainer);
+		}
+	}
+
+	/**
+	 * Blocks until all events recorded so far have been written to the output.
+	 */
+	public void flush() {
+		final long target = this.claimed.get();
+		while (this.consumed < target) {
+			LockSupport.parkNanos(WAIT_PARK_NANOS);
+		}
+	}
+
+	private void drain() {
+		final StringBuilder batch = new StringBuilder();
+		long next = 0;
+		while (true) {
+			int count = 0;
+			while (count < MAX_BATCH_SIZE) {
+				final int slot = (int) (next & (CAPACITY - 1));
+				if (this.published.get(slot) != next + 1) {
+					break;
+				}
+				format(slot, batch);
+				next++;
+				count++;
+			}
+			if (count == 0) {
+				this.drainerIdle = true;
+				if (this.published.get((int) (next & (CAPACITY - 1))) != next + 1) {
+					LockSupport.park(this);
+				}
+				this.drainerIdle = false;
+				continue;
+			}
+			this.output.print(batch);
+			this.output.flush();
+			batch.setLength(0);
+			this.consumed = next;
+		}
+	}
+
+	private void format(int slot, StringBuilder batch) {
+		final long relativeMicros = TimeUnit.NANOSECONDS.toMicros(this.timestamps[slot] - this.startTime);
+		batch.append('[').append(relativeMicros).append(" us] ").append(this.phases[slot]);
+		batch.append(": current method = ").append(this.methods[slot]);
+		if (this.tests[slot] != null && !this.tests[slot].equals(this.methods[slot])) {
+			batch.append(", current test = ").append(this.tests[slot]);
+		}
+		if (this.instanceIds[slot] != NO_INSTANCE) {
+			batch.append(", current instance ID = ").append(this.instanceIds[slot]);
+		}
+		batch.append(System.lineSeparator());
+	}
+}
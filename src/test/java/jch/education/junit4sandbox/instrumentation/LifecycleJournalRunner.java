@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+
+/**
+ * Custom runner which behaves exactly like the standard {@link BlockJUnit4ClassRunner}, but
+ * records each and every invocation of a setup/tear-down method and of a test method to the
+ * {@link LifecycleJournal}. The names of the methods are taken from the methods being invoked,
+ * so the test fixture itself does not have to do anything (and renaming a method cannot make
+ * the journal wrong). Each test fixture instance created by this runner gets a sequential ID,
+ * which is recorded together with the methods invoked on the instance. The statements executing
+ * the setup/tear-down methods are replicas of the statements used by the standard runner,
+ * extended with the journaling, like the statements of the {@link LifecycleTimingRunner}.
+ * <p>
+ * After the test fixture completes, the runner waits until all events have been written to
+ * the output.
+ */
+public class LifecycleJournalRunner extends BlockJUnit4ClassRunner {
+
+	private final LifecycleJournal journal = LifecycleJournal.getInstance();
+
+	private final AtomicInteger instanceSequence = new AtomicInteger(1);
+
+	private final Map<Object, Integer> instanceIds = Collections.synchronizedMap(new IdentityHashMap<>());
+
+	public LifecycleJournalRunner(Class<?> klass) throws InitializationError {
+		super(klass);
+	}
+
+	@Override
+	public void run(RunNotifier notifier) {
+		try {
+			super.run(notifier);
+		} finally {
+			this.journal.flush();
+		}
+	}
+
+	@Override
+	protected Object createTest() throws Exception {
+		final Object test = super.createTest();
+		this.instanceIds.put(test, this.instanceSequence.getAndIncrement());
+		return test;
+	}
+
+	@Override
+	protected Statement withBeforeClasses(Statement statement) {
+		return withJournaledBefores(statement, getTestClass().getAnnotatedMethods(BeforeClass.class), null, null, LifecyclePhase.BEFORE_CLASS);
+	}
+
+	@Override
+	protected Statement withAfterClasses(Statement statement) {
+		return withJournaledAfters(statement, getTestClass().getAnnotatedMethods(AfterClass.class), null, null, LifecyclePhase.AFTER_CLASS);
+	}
+
+	@Override
+	protected Statement withBefores(FrameworkMethod method, Object target, Statement statement) {
+		return withJournaledBefores(statement, getTestClass().getAnnotatedMethods(Before.class), target, method.getName(), LifecyclePhase.BEFORE);
+	}
+
+	/**
+	 * Besides the tear-down methods, the returned statement also forgets the ID of the test
+	 * fixture instance, as the instance is not used anymore.
+	 */
+	@Override
+	protected Statement withAfters(FrameworkMethod method, Object target, Statement statement) {
+		final Statement afters = withJournaledAfters(statement, getTestClass().getAnnotatedMethods(After.class), target, method.getName(), LifecyclePhase.AFTER);
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				try {
+					afters.evaluate();
+				} finally {
+					LifecycleJournalRunner.this.instanceIds.remove(target);
+				}
+			}
+		};
+	}
+
+	@Override
+	protected Statement methodInvoker(FrameworkMethod method, Object test) {
+		final Statement invoker = super.methodInvoker(method, test);
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				record(LifecyclePhase.TEST, method, method.getName(), test);
+				invoker.evaluate();
+			}
+		};
+	}
+
+	private Statement withJournaledBefores(Statement next, List<FrameworkMethod> befores, Object target, String testName, LifecyclePhase phase) {
+		if (befores.isEmpty()) {
+			return next;
+		}
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				for (final FrameworkMethod before : befores) {
+					record(phase, before, testName, target);
+					before.invokeExplosively(target);
+				}
+				next.evaluate();
+			}
+		};
+	}
+
+	private Statement withJournaledAfters(Statement next, List<FrameworkMethod> afters, Object target, String testName, LifecyclePhase phase) {
+		if (afters.isEmpty()) {
+			return next;
+		}
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				final List<Throwable> errors = new ArrayList<>();
+				try {
+					next.evaluate();
+				} catch (final Throwable e) {
+					errors.add(e);
+				} finally {
+					for (final FrameworkMethod after : afters) {
+						try {
+							record(phase, after, testName, target);
+							after.invokeExplosively(target);
+						} catch (final Throwable e) {
+							errors.add(e);
+						}
+					}
+				}
+				MultipleFailureException.assertEmpty(errors);
+			}
+		};
+	}
+
+	private void record(LifecyclePhase phase, FrameworkMethod method, String testName, Object target) {
+		if (target == null) {
+			this.journal.record(phase, method.getName(), testName);
+		} else {
+			this.journal.record(phase, method.getName(), testName, this.instanceIds.get(target));
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+/**
+ * Phases of the life-cycle of a test fixture whose durations are measured separately.
+ */
+public enum LifecyclePhase {
+	BEFORE_CLASS,
+	BEFORE,
+	TEST,
+	AFTER,
+	AFTER_CLASS,
+	/**
+	 * Entire test case, including the setup/tear-down methods marked as @Before/@After and
+	 * the creation of the test fixture instance.
+	 */
+	WHOLE_TEST,
+	/**
+	 * Entire test fixture, including the setup/tear-down methods marked as @BeforeClass and
+	 * {@code @AfterClass}.
+	 */
+	WHOLE_FIXTURE,
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunListener.ThreadSafe;
+
+/**
+ * Run listener complementing the {@link LifecycleTimingRunner}. It measures the overall
+ * duration of each and every test case (regardless of the runner used by the test fixture),
+ * and at the end of the test run, it exports all durations collected by {@link LifecycleTimings}
+ * to a JSON file and prints a brief summary to stdout. The listener is registered with the
+ * Surefire plugin in the POM. The location of the JSON file can be overridden using the
+ * <code>lifecycle.timings.file</code> system property.
+ */
+@ThreadSafe
+public class LifecycleTimingListener extends RunListener {
+
+	private static final String OUTPUT_FILE_PROPERTY = "lifecycle.timings.file";
+
+	private static final String DEFAULT_OUTPUT_FILE = "target/lifecycle-timings.json";
+
+	private final LifecycleTimings timings = LifecycleTimings.getInstance();
+
+	private final ConcurrentMap<Description, Long> startTimes = new ConcurrentHashMap<>();
+
+	@Override
+	public void testStarted(Description description) {
+		this.startTimes.put(description, System.nanoTime());
+	}
+
+	@Override
+	public void testFinished(Description description) {
+		final Long startTime = this.startTimes.remove(description);
+		if (startTime != null && description.getClassName() != null) {
+			final long duration = MeasuredDurations.get(description, System.nanoTime() - startTime);
+			this.timings.record(description.getClassName(), description.getMethodName(), LifecyclePhase.WHOLE_TEST, duration);
+		}
+	}
+
+	@Override
+	public void testRunFinished(Result result) throws IOException {
+		final Path outputFile = Paths.get(System.getProperty(OUTPUT_FILE_PROPERTY, DEFAULT_OUTPUT_FILE));
+		if (outputFile.getParent() != null) {
+			Files.createDirectories(outputFile.getParent());
+		}
+		try (final Writer writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+			this.timings.writeJson(writer);
+		}
+		System.out.println("Life-cycle timings written to " + outputFile.toAbsolutePath());
+		this.timings.printSummary(System.out);
+	}
+}
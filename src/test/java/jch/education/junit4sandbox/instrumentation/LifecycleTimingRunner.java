@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+
+/**
+ * Custom runner which behaves exactly like the standard {@link BlockJUnit4ClassRunner}, but
+ * measures the duration of each and every life-cycle phase (i.e. all methods marked as
+ * {@code @BeforeClass}, all methods marked as @Before, the test method etc.) and records the
+ * durations to {@link LifecycleTimings}. The statements executing the setup/tear-down methods
+ * are replicas of the statements used by the standard runner, extended with the time
+ * measurement. The overhead is limited to two invocations of System.nanoTime() and an update
+ * of a histogram per phase.
+ * <p>
+ * Use this runner together with the {@link LifecycleTimingListener} which exports the collected
+ * durations at the end of the test run.
+ */
+public class LifecycleTimingRunner extends BlockJUnit4ClassRunner {
+
+	private final LifecycleTimings timings = LifecycleTimings.getInstance();
+
+	public LifecycleTimingRunner(Class<?> testClass) throws InitializationError {
+		super(testClass);
+	}
+
+	@Override
+	protected Statement classBlock(RunNotifier notifier) {
+		return timed(super.classBlock(notifier), null, LifecyclePhase.WHOLE_FIXTURE);
+	}
+
+	@Override
+	protected Statement withBeforeClasses(Statement statement) {
+		return withTimedBefores(statement, getTestClass().getAnnotatedMethods(BeforeClass.class), null, null, LifecyclePhase.BEFORE_CLASS);
+	}
+
+	@Override
+	protected Statement withAfterClasses(Statement statement) {
+		return withTimedAfters(statement, getTestClass().getAnnotatedMethods(AfterClass.class), null, null, LifecyclePhase.AFTER_CLASS);
+	}
+
+	@Override
+	protected Statement withBefores(FrameworkMethod method, Object target, Statement statement) {
+		return withTimedBefores(statement, getTestClass().getAnnotatedMethods(Before.class), target, method.getName(), LifecyclePhase.BEFORE);
+	}
+
+	@Override
+	protected Statement withAfters(FrameworkMethod method, Object target, Statement statement) {
+		return withTimedAfters(statement, getTestClass().getAnnotatedMethods(After.class), target, method.getName(), LifecyclePhase.AFTER);
+	}
+
+	@Override
+	protected Statement methodInvoker(FrameworkMethod method, Object test) {
+		return timed(super.methodInvoker(method, test), method.getName(), LifecyclePhase.TEST);
+	}
+
+	private Statement timed(Statement statement, String testName, LifecyclePhase phase) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				final long startTime = System.nanoTime();
+				try {
+					statement.evaluate();
+				} finally {
+					record(testName, phase, startTime);
+				}
+			}
+		};
+	}
+
+	private Statement withTimedBefores(Statement next, List<FrameworkMethod> befores, Object target, String testName, LifecyclePhase phase) {
+		if (befores.isEmpty()) {
+			return next;
+		}
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				final long startTime = System.nanoTime();
+				try {
+					for (final FrameworkMethod before : befores) {
+						before.invokeExplosively(target);
+					}
+				} finally {
+					record(testName, phase, startTime);
+				}
+				next.evaluate();
+			}
+		};
+	}
+
+	private Statement withTimedAfters(Statement next, List<FrameworkMethod> afters, Object target, String testName, LifecyclePhase phase) {
+		if (afters.isEmpty()) {
+			return next;
+		}
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				final List<Throwable> errors = new ArrayList<>();
+				try {
+					next.evaluate();
+				} catch (final Throwable e) {
+					errors.add(e);
+				} finally {
+					final long startTime = System.nanoTime();
+					for (final FrameworkMethod after : afters) {
+						try {
+							after.invokeExplosively(target);
+						} catch (final Throwable e) {
+							errors.add(e);
+						}
+					}
+					record(testName, phase, startTime);
+				}
+				MultipleFailureException.assertEmpty(errors);
+			}
+		};
+	}
+
+	private void record(String testName, LifecyclePhase phase, long startTime) {
+		this.timings.record(getTestClass().getName(), testName, phase, System.nanoTime() - startTime);
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * This experimental test fixture illustrates the {@link LifecycleTimingRunner}. Its structure
+ * is similar to the test fixture in the setupteardown package, but instead of printing the
+ * names of the invoked methods to stdout, it lets the runner measure the duration of each
+ * life-cycle phase. The setup/tear-down methods simulate some work of different duration,
+ * so the exported timings clearly show which phase dominates. The last class-level tear-down
+ * method verifies that the durations of all phases preceding it have been recorded.
+ */
+@RunWith(LifecycleTimingRunner.class)
+public class LifecycleTimingTestFixture {
+
+	private static final int TEST_CASE_COUNT = 3;
+
+	@BeforeClass
+	public static void classLevelSetup() throws InterruptedException {
+		Thread.sleep(20);
+	}
+
+	@Before
+	public void setup() throws InterruptedException {
+		Thread.sleep(5);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		Thread.sleep(1);
+	}
+
+	@AfterClass
+	public static void classLevelTearDown() {
+		final LifecycleTimings timings = LifecycleTimings.getInstance();
+		final String fixtureName = LifecycleTimingTestFixture.class.getName();
+		assertNotNull(timings.getHistogram(fixtureName, LifecyclePhase.BEFORE_CLASS));
+		assertEquals(TEST_CASE_COUNT, timings.getHistogram(fixtureName, LifecyclePhase.BEFORE).getCount());
+		assertEquals(TEST_CASE_COUNT, timings.getHistogram(fixtureName, LifecyclePhase.TEST).getCount());
+		assertEquals(TEST_CASE_COUNT, timings.getHistogram(fixtureName, LifecyclePhase.AFTER).getCount());
+	}
+
+	@Test
+	public void testCaseOne() {
+	}
+
+	@Test
+	public void testCaseTwo() throws InterruptedException {
+		Thread.sleep(2);
+	}
+
+	@Test
+	public void testCaseThree() throws InterruptedException {
+		Thread.sleep(10);
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * JVM-wide registry of the durations of the particular life-cycle phases, collected by the
+ * {@link LifecycleTimingRunner} and the {@link LifecycleTimingListener}. The durations are
+ * kept in histograms per test fixture and phase as well as per test method and phase, so the
+ * memory consumption does not grow with the number of executions. The test cases created from
+ * the rows of a parametrized test method (e.g. <code>test[sqr(2) = 4]</code>) are aggregated
+ * into a single histogram for the test method; otherwise, the memory consumption and the size
+ * of the exported JSON would grow with the number of rows. Histograms for each and every test
+ * case can be enabled by setting the <code>lifecycle.timings.per.test</code> system property to
+ * true.
+ */
+public final class LifecycleTimings {
+
+	private static final LifecycleTimings INSTANCE = new LifecycleTimings();
+
+	private static final String PER_TEST_PROPERTY = "lifecycle.timings.per.test";
+
+	private static final double[] REPORTED_PERCENTILES = { 50.0, 99.0 };
+
+	private final boolean perTest = Boolean.getBoolean(PER_TEST_PROPERTY);
+
+	private final ConcurrentMap<String, FixtureTimings> fixtures = new ConcurrentHashMap<>();
+
+	private LifecycleTimings() {}
+
+	public static LifecycleTimings getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Records the duration of a phase of the given test fixture. Phases related to a particular
+	 * test case are recorded for the test method (or test case) as well as for the test fixture;
+	 * for the other phases, the test name is to be null.
+	 */
+	public void record(String fixtureName, String testName, LifecyclePhase phase, long durationNanos) {
+		final FixtureTimings fixture = this.fixtures.computeIfAbsent(fixtureName, name -> new FixtureTimings());
+		fixture.phases.get(phase).record(durationNanos);
+		if (testName != null) {
+			final String key = this.perTest ? testName : stripRowName(testName);
+			fixture.tests.computeIfAbsent(key, name -> new PhaseHistograms()).get(phase).record(durationNanos);
+		}
+	}
+
+	/**
+	 * Strips the name of the parameter row (e.g. <code>[sqr(2) = 4]</code>) from the given test
+	 * name, so that only the name of the test method remains.
+	 */
+	private static String stripRowName(String testName) {
+		final int rowNameStart = testName.indexOf('[');
+		return (rowNameStart < 0) ? testName : testName.substring(0, rowNameStart);
+	}
+
+	/**
+	 * Returns the histogram for the given phase of the given test fixture, or null if no such
+	 * duration has been recorded.
+	 */
+	public Histogram getHistogram(String fixtureName, LifecyclePhase phase) {
+		final FixtureTimings fixture = this.fixtures.get(fixtureName);
+		return (fixture == null) ? null : fixture.phases.find(phase);
+	}
+
+	public void writeJson(Writer writer) throws IOException {
+		writer.write("{\n  \"fixtures\": [");
+		String separator = "\n";
+		for (final Map.Entry<String, FixtureTimings> fixture : new TreeMap<>(this.fixtures).entrySet()) {
+			writer.write(separator);
+			writer.write("    {\n      \"name\": " + Json.quote(fixture.getKey()) + ",\n      \"phases\": ");
+			writePhasesAsJson(writer, fixture.getValue().phases, "      ");
+			writer.write(",\n      \"tests\": [");
+			String testSeparator = "\n";
+			for (final Map.Entry<String, PhaseHistograms> test : new TreeMap<>(fixture.getValue().tests).entrySet()) {
+				writer.write(testSeparator);
+				writer.write("        { \"name\": " + Json.quote(test.getKey()) + ", \"phases\": ");
+				writePhasesAsJson(writer, test.getValue(), "          ");
+				writer.write(" }");
+				testSeparator = ",\n";
+			}
+			writer.write("\n      ]\n    }");
+			separator = ",\n";
+		}
+		writer.write("\n  ]\n}\n");
+	}
+
+	private static void writePhasesAsJson(Writer writer, PhaseHistograms phases, String indentation) throws IOException {
+		writer.write("{");
+		String separator = "\n";
+		for (final LifecyclePhase phase : LifecyclePhase.values()) {
+			final Histogram histogram = phases.find(phase);
+			if (histogram == null) {
+				continue;
+			}
+			writer.write(separator);
+			writer.write(indentation + "  " + Json.quote(phase.name()) + ": { \"count\": " + histogram.getCount());
+			for (final double percentile : REPORTED_PERCENTILES) {
+				writer.write(String.format(", \"p%.0fNanos\": %d", percentile, histogram.getValueAtPercentile(percentile)));
+			}
+			writer.write(", \"maxNanos\": " + histogram.getMax() + " }");
+			separator = ",\n";
+		}
+		writer.write("\n" + indentation + "}");
+	}
+
+	/**
+	 * Prints a brief per-fixture summary in a human readable form.
+	 */
+	public void printSummary(PrintStream out) {
+		for (final Map.Entry<String, FixtureTimings> fixture : new TreeMap<>(this.fixtures).entrySet()) {
+			out.println(fixture.getKey());
+			for (final LifecyclePhase phase : LifecyclePhase.values()) {
+				final Histogram histogram = fixture.getValue().phases.find(phase);
+				if (histogram != null) {
+					String message = "    %-13s count = %7d, p50 = %10.3f ms, p99 = %10.3f ms, max = %10.3f ms";
+					message = String.format(message, phase, histogram.getCount(), toMillis(histogram.getValueAtPercentile(50.0)),
+							toMillis(histogram.getValueAtPercentile(99.0)), toMillis(histogram.getMax()));
+					out.println(message);
+				}
+			}
+		}
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	/**
+	 * Histograms for all phases, created lazily on first use.
+	 */
+	private static class PhaseHistograms {
+
+		private final AtomicReferenceArray<Histogram> histograms = new AtomicReferenceArray<>(LifecyclePhase.values().length);
+
+		Histogram get(LifecyclePhase phase) {
+			final Histogram histogram = this.histograms.get(phase.ordinal());
+			if (histogram != null) {
+				return histogram;
+			}
+			this.histograms.compareAndSet(phase.ordinal(), null, new Histogram());
+			return this.histograms.get(phase.ordinal());
+		}
+
+		Histogram find(LifecyclePhase phase) {
+			return this.histograms.get(phase.ordinal());
+		}
+	}
+
+	private static class FixtureTimings {
+
+		private final PhaseHistograms phases = new PhaseHistograms();
+
+		private final ConcurrentMap<String, PhaseHistograms> tests = new ConcurrentHashMap<>();
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.instrumentation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.runner.Description;
+
+/**
+ * Durations of test cases reported by runners which notify the run listeners only after the
+ * test cases have been executed (e.g. ParallelParameterized, which replays the events recorded
+ * by its worker threads). The start and finish notifications of such a test case are fired
+ * back-to-back, so a listener measuring the time between them would get a duration of about
+ * zero. Therefore, the runner registers the actual duration before it replays the finish
+ * notification, and unregisters it afterwards. Run listeners measuring durations should
+ * prefer the registered duration over their own measurement.
+ */
+public final class MeasuredDurations {
+
+	private static final ConcurrentMap<Description, Long> DURATIONS = new ConcurrentHashMap<>();
+
+	/**
+	 * Avoids instantiation of this utility class.
+	 */
+	private MeasuredDurations() {}
+
+	public static void register(Description description, long durationNanos) {
+		DURATIONS.put(description, durationNanos);
+	}
+
+	public static void unregister(Description description) {
+		DURATIONS.remove(description);
+	}
+
+	/**
+	 * Returns the duration registered for the given test case by its runner, or the given
+	 * duration measured by the caller if there is no such duration.
+	 */
+	public static long get(Description description, long measuredDurationNanos) {
+		final Long registeredDuration = DURATIONS.get(description);
+		return (registeredDuration == null) ? measuredDurationNanos : registeredDuration;
+	}
+}
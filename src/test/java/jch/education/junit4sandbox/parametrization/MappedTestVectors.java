@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.parametrization;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a binary file containing test vectors, i.e. fixed-width records of int
+ * values like (input, expected outcome) pairs. The file is memory-mapped, so the test vectors
+ * are not loaded to the heap at all; the operating system pages them in on demand. If a method
+ * marked as @Parameters returns an instance of this class, the {@link StreamingParameterized}
+ * runner (as well as the {@link ParallelParameterized} runner) reads the particular records
+ * directly from the mapped file and injects them to int fields marked as @Parameter without
+ * boxing.
+ * <p>
+ * The file starts with a header consisting of three int values (magic number, number of int
+ * values per record and number of records), followed by the records. All values are stored in
+ * big-endian byte order. Use {@link TestVectorFileGenerator} to create such files.
+ */
+public final class MappedTestVectors {
+
+	static final int MAGIC_NUMBER = 0x54564543;
+
+	static final int HEADER_SIZE = 3;
+
+	private final IntBuffer records;
+
+	private final int recordWidth;
+
+	private final int recordCount;
+
+	private MappedTestVectors(IntBuffer records, int recordWidth, int recordCount) {
+		this.records = records;
+		this.recordWidth = recordWidth;
+		this.recordCount = recordCount;
+	}
+
+	public static MappedTestVectors open(Path file) throws IOException {
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				String message = "Test vector file %s is too large (%d bytes), at most %d bytes are supported.";
+				message = String.format(message, file, channel.size(), Integer.MAX_VALUE);
+				throw new IOException(message);
+			}
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			final IntBuffer content = buffer.asIntBuffer();
+			if (content.limit() < HEADER_SIZE || content.get(0) != MAGIC_NUMBER) {
+				String message = "File %s is not a test vector file.";
+				message = String.format(message, file);
+				throw new IOException(message);
+			}
+			final int recordWidth = content.get(1);
+			final int recordCount = content.get(2);
+			if (recordWidth <= 0 || recordCount < 0 || (long) recordWidth * recordCount != content.limit() - HEADER_SIZE) {
+				String message = "Test vector file %s is corrupted (record width = %d, record count = %d, %d int values).";
+				message = String.format(message, file, recordWidth, recordCount, content.limit() - HEADER_SIZE);
+				throw new IOException(message);
+			}
+			content.position(HEADER_SIZE);
+			return new MappedTestVectors(content.slice(), recordWidth, recordCount);
+		}
+	}
+
+	/**
+	 * Returns the number of int values per record.
+	 */
+	public int getRecordWidth() {
+		return this.recordWidth;
+	}
+
+	public int getRecordCount() {
+		return this.recordCount;
+	}
+
+	/**
+	 * Returns the value from the given column of the given record. The method uses absolute
+	 * access to the mapped buffer, so it can safely be invoked by several threads concurrently.
+	 */
+	public int get(int record, int column) {
+		return this.records.get(record * this.recordWidth + column);
+	}
+}
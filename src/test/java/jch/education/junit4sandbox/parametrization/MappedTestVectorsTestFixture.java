@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.parametrization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * This experimental test fixture illustrates test data read from a memory-mapped binary file
+ * rather than embedded in the source code as a literal. The literal used by the other test
+ * fixtures in this package is a two-dimensional array of objects, so each and every int value
+ * is boxed. The binary file contains just primitive int values, and the
+ * {@link StreamingParameterized} runner injects them to the int fields directly. In real life,
+ * the test vector file would be generated once (using {@link TestVectorFileGenerator}) and
+ * maintained together with the source code. In order to keep this example self-contained, the
+ * file is generated on the fly.
+ */
+@RunWith(StreamingParameterized.class)
+public class MappedTestVectorsTestFixture {
+
+	private static final Path TEST_VECTOR_FILE = Paths.get("target", "square-root-test-vectors.bin");
+
+	@Parameter(0)
+	public int input;
+
+	@Parameter(1)
+	public int expectedOutcome;
+
+	@Parameters(name = "sqr({0}) = {1}")
+	public static MappedTestVectors data() throws IOException {
+		Files.createDirectories(TEST_VECTOR_FILE.getParent());
+		TestVectorFileGenerator.generateSquareRootVectors(TEST_VECTOR_FILE, -1000, 1000);
+		return MappedTestVectors.open(TEST_VECTOR_FILE);
+	}
+
+	@Test
+	public void properSquareRootIsCalculatedForTheGivenValue() {
+		assertEquals(this.expectedOutcome, SquareRoot.calculate(this.input));
+	}
+}
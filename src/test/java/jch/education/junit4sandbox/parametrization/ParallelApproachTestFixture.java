@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.parametrization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import jch.education.junit4sandbox.parametrization.ParallelParameterized.Parallelism;
+
+/**
+ * This experimental test fixture illustrates the {@link ParallelParameterized} runner. Apart
+ * from the runner and the optional Parallelism annotation, it is identical to
+ * {@link StreamingApproachTestFixture}. The particular rows are executed concurrently by four
+ * worker threads, but the test result (including the names of the test cases and their order)
+ * is the same as if the rows were executed serially.
+ */
+@RunWith(ParallelParameterized.class)
+@Parallelism(4)
+public class ParallelApproachTestFixture {
+
+	private static final int MIN_INPUT = -1000;
+
+	private static final int MAX_INPUT = 1000;
+
+	@Parameter(0)
+	public int input;
+
+	@Parameter(1)
+	public int expectedOutcome;
+
+	@Parameters(name = "sqr({0}) = {1}")
+	public static Stream<Object[]> data() {
+		return IntStream.rangeClosed(MIN_INPUT, MAX_INPUT).mapToObj(value -> new Object[] { value, value * value });
+	}
+
+	@Test
+	public void properSquareRootIsCalculatedForTheGivenValue() {
+		assertEquals(this.expectedOutcome, SquareRoot.calculate(this.input));
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.parametrization;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runner.notification.StoppedByUserException;
+import org.junit.runners.model.InitializationError;
+
+import jch.education.junit4sandbox.instrumentation.MeasuredDurations;
+
+/**
+ * Variant of the {@link StreamingParameterized} runner which executes the particular rows
+ * concurrently, using a fork-join pool. The rows are independent of each other, and each test
+ * case gets its own test fixture instance anyway, so there is no reason to execute the rows
+ * serially on a single thread. The size of the pool can be configured using the
+ * {@link Parallelism} annotation. By default, the pool has as many threads as there are
+ * available processors.
+ * <p>
+ * The results of the test cases are not reported to the notifier directly by the worker
+ * threads. Each row records its events, and the recorded events are replayed on the calling
+ * thread in the order of the rows. Therefore, the test result looks exactly the same regardless
+ * of the number of threads. As the start and finish of a test case are replayed back-to-back,
+ * the actual duration measured by the worker thread is published via {@link MeasuredDurations}
+ * during the replay; listeners measuring the time between the notifications on their own see
+ * durations of about zero. If the notifier is asked to stop (e.g. by a fail-fast listener), the
+ * request is passed to the rows in progress, and no further rows are started. At any point in
+ * time, just a limited number of rows is in progress, so the memory consumption remains
+ * constant like with the {@link StreamingParameterized} runner.
+ * <p>
+ * Be aware of the fact that setup/tear-down methods marked as @BeforeClass/@AfterClass are still
+ * executed just once, but the @Before/@After methods as well as the test methods are executed
+ * concurrently. Test fixtures whose test cases share mutable static state are therefore not
+ * suitable for this runner.
+ */
+public class ParallelParameterized extends StreamingParameterized {
+
+	/**
+	 * Number of rows per worker thread that can be in progress (or waiting for their events to be
+	 * replayed) at any point in time.
+	 */
+	private static final int ROWS_IN_PROGRESS_PER_THREAD = 4;
+
+	/**
+	 * Optional annotation allowing to specify the number of worker threads for a test fixture.
+	 * Zero (the default) means the number of available processors.
+	 */
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	public static @interface Parallelism {
+		int value() default 0;
+	}
+
+	public ParallelParameterized(Class<?> testClass) throws InitializationError {
+		super(testClass);
+	}
+
+	@Override
+	protected void collectInitializationErrors(List<Throwable> errors) {
+		super.collectInitializationErrors(errors);
+		final Parallelism parallelism = getTestClass().getJavaClass().getAnnotation(Parallelism.class);
+		if (parallelism != null && parallelism.value() < 0) {
+			String message = "Invalid @Parallelism value %d, zero or a positive number is expected.";
+			message = String.format(message, parallelism.value());
+			errors.add(new Exception(message));
+		}
+	}
+
+	@Override
+	protected void runRows(Iterator<Row> rows, RunNotifier notifier) throws Throwable {
+		final int threadCount = getThreadCount();
+		final int maxRowsInProgress = threadCount * ROWS_IN_PROGRESS_PER_THREAD;
+		final ArrayDeque<RecordedRow> rowsInProgress = new ArrayDeque<>(maxRowsInProgress);
+		final ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			while (rows.hasNext()) {
+				if (rowsInProgress.size() == maxRowsInProgress) {
+					replay(rowsInProgress.removeFirst(), rowsInProgress, notifier);
+				}
+				final Row row = rows.next();
+				final RecordedRow recordedRow = new RecordedRow();
+				recordedRow.completion = pool.submit(() -> runRecordingEvents(row, recordedRow));
+				rowsInProgress.addLast(recordedRow);
+			}
+			while (!rowsInProgress.isEmpty()) {
+				replay(rowsInProgress.removeFirst(), rowsInProgress, notifier);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private int getThreadCount() {
+		final Parallelism parallelism = getTestClass().getJavaClass().getAnnotation(Parallelism.class);
+		if (parallelism == null || parallelism.value() == 0) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		return parallelism.value();
+	}
+
+	private void runRecordingEvents(Row row, RecordedRow recordedRow) {
+		try {
+			runRow(row, recordedRow.notifier);
+		} catch (final Throwable t) {
+			recordedRow.error = t;
+		}
+	}
+
+	/**
+	 * Replays the events of the given row. If the notifier has been asked to stop, the request
+	 * is passed to the rows still in progress, so they do not start any further test case.
+	 */
+	private static void replay(RecordedRow recordedRow, Iterable<RecordedRow> rowsInProgress, RunNotifier notifier) throws Throwable {
+		try {
+			recordedRow.completion.get();
+		} catch (final ExecutionException e) {
+			throw e.getCause();
+		}
+		try {
+			for (final Consumer<RunNotifier> event : recordedRow.events) {
+				event.accept(notifier);
+			}
+		} catch (final StoppedByUserException e) {
+			for (final RecordedRow rowInProgress : rowsInProgress) {
+				rowInProgress.notifier.pleaseStop();
+			}
+			throw e;
+		}
+		if (recordedRow.error != null) {
+			throw recordedRow.error;
+		}
+	}
+
+	/**
+	 * Listener recording the events of a single row so that they can be replayed later, along
+	 * with the actual durations of the test cases. Each instance is used by a single worker
+	 * thread; the calling thread only accesses it after the row has completed, or in order to
+	 * ask its notifier to stop.
+	 */
+	private static class RecordedRow extends RunListener {
+
+		private final RunNotifier notifier = new RunNotifier();
+
+		private final List<Consumer<RunNotifier>> events = new ArrayList<>();
+
+		private final Map<Description, Long> startTimes = new HashMap<>();
+
+		private Future<?> completion;
+
+		private Throwable error;
+
+		RecordedRow() {
+			this.notifier.addListener(this);
+		}
+
+		@Override
+		public void testStarted(Description description) {
+			this.startTimes.put(description, System.nanoTime());
+			this.events.add(notifier -> notifier.fireTestStarted(description));
+		}
+
+		@Override
+		public void testFailure(Failure failure) {
+			this.events.add(notifier -> notifier.fireTestFailure(failure));
+		}
+
+		@Override
+		public void testAssumptionFailure(Failure failure) {
+			this.events.add(notifier -> notifier.fireTestAssumptionFailed(failure));
+		}
+
+		@Override
+		public void testIgnored(Description description) {
+			this.events.add(notifier -> notifier.fireTestIgnored(description));
+		}
+
+		@Override
+		public void testFinished(Description description) {
+			final Long startTime = this.startTimes.remove(description);
+			if (startTime == null) {
+				this.events.add(notifier -> notifier.fireTestFinished(description));
+				return;
+			}
+			final long duration = System.nanoTime() - startTime;
+			this.events.add(notifier -> {
+				MeasuredDurations.register(description, duration);
+				try {
+					notifier.fireTestFinished(description);
+				} finally {
+					MeasuredDurations.unregister(description);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.parametrization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+import org.junit.runner.RunWith;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runner.notification.StoppedByUserException;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import jch.education.junit4sandbox.instrumentation.MeasuredDurations;
+import jch.education.junit4sandbox.parametrization.ParallelParameterized.Parallelism;
+
+/**
+ * This test fixture verifies the reporting of the {@link ParallelParameterized} runner, which
+ * replays the events recorded by its worker threads. The sample test fixtures are nested
+ * classes, therefore they are not executed by surefire directly.
+ */
+public class ParallelParameterizedTestFixture {
+
+	private static final long SLEEP_MILLIS = 20;
+
+	private static final int ROW_COUNT = 1000;
+
+	@Test
+	public void actualDurationsOfReplayedTestCasesAreReported() {
+		final List<Long> durations = new CopyOnWriteArrayList<>();
+		final RunNotifier notifier = new RunNotifier();
+		notifier.addListener(new RunListener() {
+			@Override
+			public void testFinished(Description description) {
+				durations.add(MeasuredDurations.get(description, 0));
+			}
+		});
+		Request.aClass(SleepingFixture.class).getRunner().run(notifier);
+
+		assertEquals(8, durations.size());
+		for (final long duration : durations) {
+			assertTrue("Duration " + duration + " ns is too short.", duration >= TimeUnit.MILLISECONDS.toNanos(SLEEP_MILLIS));
+		}
+	}
+
+	@Test
+	public void noFurtherRowsAreStartedOnceStopIsRequested() {
+		FailingFixture.executedTestCases.set(0);
+		final RunNotifier notifier = new RunNotifier();
+		notifier.addListener(new RunListener() {
+			@Override
+			public void testFailure(Failure failure) {
+				notifier.pleaseStop();
+			}
+		});
+		try {
+			Request.aClass(FailingFixture.class).getRunner().run(notifier);
+			fail("The run should have been stopped.");
+		} catch (final StoppedByUserException e) {
+			// expected
+		}
+		assertTrue(FailingFixture.executedTestCases.get() < ROW_COUNT / 10);
+	}
+
+	@RunWith(ParallelParameterized.class)
+	@Parallelism(2)
+	public static class SleepingFixture {
+
+		@Parameter(0)
+		public int input;
+
+		@Parameters(name = "row {0}")
+		public static Stream<Object[]> data() {
+			return IntStream.range(0, 8).mapToObj(value -> new Object[] { value });
+		}
+
+		@Test
+		public void sleepingTestCase() throws InterruptedException {
+			Thread.sleep(SLEEP_MILLIS);
+		}
+	}
+
+	@RunWith(ParallelParameterized.class)
+	@Parallelism(2)
+	public static class FailingFixture {
+
+		private static final AtomicInteger executedTestCases = new AtomicInteger();
+
+		@Parameter(0)
+		public int input;
+
+		@Parameters(name = "row {0}")
+		public static Stream<Object[]> data() {
+			return IntStream.range(0, ROW_COUNT).mapToObj(value -> new Object[] { value });
+		}
+
+		@Test
+		public void failingTestCase() throws InterruptedException {
+			executedTestCases.incrementAndGet();
+			Thread.sleep(1);
+			assertTrue(this.input > 0);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.parametrization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * This experimental test fixture illustrates the {@link StreamingParameterized} runner. The
+ * test data is not a literal embedded in the source code. It is a lazily evaluated stream
+ * generating the rows on demand, so the number of rows could be increased by several orders
+ * of magnitude without any impact on the memory consumption. With the standard Parameterized
+ * runner, the entire collection of rows (plus a child runner for each row) would have to be
+ * kept in memory.
+ */
+@RunWith(StreamingParameterized.class)
+public class StreamingApproachTestFixture {
+
+	private static final int MIN_INPUT = -1000;
+
+	private static final int MAX_INPUT = 1000;
+
+	@Parameter(0)
+	public int input;
+
+	@Parameter(1)
+	public int expectedOutcome;
+
+	/**
+	 * In contrast with the other test fixtures in this package, the return value is a stream
+	 * rather than a collection. Nothing is generated before the runner asks for the next row.
+	 */
+	@Parameters(name = "sqr({0}) = {1}")
+	public static Stream<Object[]> data() {
+		return IntStream.rangeClosed(MIN_INPUT, MAX_INPUT).mapToObj(value -> new Object[] { value, value * value });
+	}
+
+	@Test
+	public void properSquareRootIsCalculatedForTheGivenValue() {
+		assertEquals(this.expectedOutcome, SquareRoot.calculate(this.input));
+	}
+}
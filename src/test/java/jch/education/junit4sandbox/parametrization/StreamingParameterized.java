@@ -0,0 +1,424 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.parametrization;
+
+import java.lang.reflect.Field;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.junit.runners.model.FrameworkField;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+
+/**
+ * Custom runner that is an alternative to the standard {@link org.junit.runners.Parameterized}
+ * runner for huge amounts of test data. The standard runner invokes the method marked as
+ * {@code @Parameters}, takes the entire collection of parameter rows, and creates a child
+ * runner (including the complete description tree) for each and every row before the very
+ * first test case is executed. For a few rows, this is no problem. For millions of rows, the
+ * memory consumption and the startup time are unacceptable.
+ * <p>
+ * This runner takes a different approach:
+ * <ul>
+ * <li>The method marked as @Parameters can return an {@link Iterator}, an {@link Iterable},
+ * a {@link Stream} or an array. The rows are consumed one by one, so a lazily evaluated
+ * stream never has to be materialized.</li>
+ * <li>There are no child runners. A single runner executes all test methods for the current
+ * row, and the descriptions of the test cases are created on demand, just before they are
+ * executed. The memory consumption thus remains constant regardless of the number of rows.</li>
+ * <li>The test fixture instances are created exactly like with the standard runner, i.e. the
+ * parameters are either passed to the constructor or injected into fields marked as @Parameter.
+ * The naming of the test cases is also identical (e.g. <code>@Parameters(name = "sqr({0}) = {1}")</code>).</li>
+ * </ul>
+ * The price to pay is that the description of the test fixture returned by this runner does
+ * not contain the particular test cases, as they are not known in advance. Test runners (e.g.
+ * IDEs) therefore cannot display the test cases before they are actually executed.
+ */
+public class StreamingParameterized extends BlockJUnit4ClassRunner {
+
+	private final ThreadLocal<Row> currentRow = new ThreadLocal<>();
+
+	public StreamingParameterized(Class<?> testClass) throws InitializationError {
+		super(testClass);
+	}
+
+	@Override
+	protected void collectInitializationErrors(List<Throwable> errors) {
+		super.collectInitializationErrors(errors);
+		validateParametersMethod(errors);
+	}
+
+	private void validateParametersMethod(List<Throwable> errors) {
+		final List<FrameworkMethod> methods = getTestClass().getAnnotatedMethods(Parameters.class);
+		if (methods.size() != 1) {
+			String message = "Test class %s must have exactly one public static method marked as @Parameters, found %d.";
+			message = String.format(message, getTestClass().getName(), methods.size());
+			errors.add(new Exception(message));
+			return;
+		}
+		final FrameworkMethod method = methods.get(0);
+		if (!method.isPublic() || !method.isStatic()) {
+			String message = "Method %s marked as @Parameters must be public and static.";
+			message = String.format(message, method.getName());
+			errors.add(new Exception(message));
+		}
+	}
+
+	/**
+	 * Unlike the standard {@link BlockJUnit4ClassRunner}, a constructor with arguments is legal
+	 * unless the parameters are injected into fields.
+	 */
+	@Override
+	protected void validateConstructor(List<Throwable> errors) {
+		validateOnlyOneConstructor(errors);
+		if (fieldsAreAnnotated()) {
+			validateZeroArgConstructor(errors);
+		}
+	}
+
+	@Override
+	protected void validateFields(List<Throwable> errors) {
+		super.validateFields(errors);
+		final List<FrameworkField> fields = getAnnotatedFields();
+		final boolean[] indexUsed = new boolean[fields.size()];
+		for (final FrameworkField field : fields) {
+			final int index = field.getField().getAnnotation(Parameter.class).value();
+			if (index < 0 || index >= fields.size()) {
+				String message = "Invalid @Parameter value %d for field %s, the test class has %d field(s) marked as @Parameter.";
+				message = String.format(message, index, field.getName(), fields.size());
+				errors.add(new Exception(message));
+			} else if (indexUsed[index]) {
+				String message = "@Parameter(%d) is used for more than one field.";
+				message = String.format(message, index);
+				errors.add(new Exception(message));
+			} else {
+				indexUsed[index] = true;
+			}
+		}
+	}
+
+	/**
+	 * The description does not involve the particular test cases. See the class level JavaDoc
+	 * comment for more details.
+	 */
+	@Override
+	public Description getDescription() {
+		return Description.createSuiteDescription(getName(), getRunnerAnnotations());
+	}
+
+	/**
+	 * Without a current row (e.g. when a filter is applied), the description of the test method
+	 * itself is returned.
+	 */
+	@Override
+	protected Description describeChild(FrameworkMethod method) {
+		final Row row = this.currentRow.get();
+		if (row == null) {
+			return super.describeChild(method);
+		}
+		final String testName = method.getName() + row.name;
+		return Description.createTestDescription(getTestClass().getJavaClass(), testName, method.getAnnotations());
+	}
+
+	@Override
+	protected Object createTest() throws Exception {
+		final Row row = this.currentRow.get();
+		if (fieldsAreAnnotated()) {
+			return createTestUsingFieldInjection(row);
+		}
+		return getTestClass().getOnlyConstructor().newInstance(row.toArray());
+	}
+
+	private Object createTestUsingFieldInjection(Row row) throws Exception {
+		final List<FrameworkField> fields = getAnnotatedFields();
+		if (fields.size() != row.size()) {
+			String message = "Wrong number of parameters and @Parameter fields. @Parameter fields counted: %d, available parameters: %d.";
+			message = String.format(message, fields.size(), row.size());
+			throw new Exception(message);
+		}
+		final Object testInstance = getTestClass().getOnlyConstructor().newInstance();
+		for (final FrameworkField each : fields) {
+			final Field field = each.getField();
+			final int index = field.getAnnotation(Parameter.class).value();
+			try {
+				row.inject(testInstance, field, index);
+			} catch (final IllegalArgumentException e) {
+				final Object value = row.get(index);
+				String message = "%s: Trying to set %s with the value %s that is not the right type (%s instead of %s).";
+				message = String.format(message, getTestClass().getName(), field.getName(), value,
+						value == null ? "null" : value.getClass().getSimpleName(),
+						field.getType().getSimpleName());
+				throw new Exception(message, e);
+			}
+		}
+		return testInstance;
+	}
+
+	@Override
+	protected Statement childrenInvoker(final RunNotifier notifier) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				final Object source = getParametersMethod().invokeExplosively(null);
+				try {
+					runRows(rowsOf(source), notifier);
+				} finally {
+					if (source instanceof AutoCloseable) {
+						((AutoCloseable) source).close();
+					}
+				}
+			}
+		};
+	}
+
+	/**
+	 * Executes all test methods for each of the given rows. The rows are consumed one by one,
+	 * so at any point in time, just a single row is referenced by this runner.
+	 */
+	protected void runRows(Iterator<Row> rows, RunNotifier notifier) throws Throwable {
+		while (rows.hasNext()) {
+			runRow(rows.next(), notifier);
+		}
+	}
+
+	/**
+	 * Executes all (filtered) test methods for the given row, reporting the results to the given
+	 * notifier. The row is bound to the current thread, so distinct rows can safely be executed
+	 * by distinct threads.
+	 */
+	protected void runRow(Row row, RunNotifier notifier) throws Throwable {
+		this.currentRow.set(row);
+		try {
+			super.childrenInvoker(notifier).evaluate();
+		} finally {
+			this.currentRow.remove();
+		}
+	}
+
+	private FrameworkMethod getParametersMethod() {
+		return getTestClass().getAnnotatedMethods(Parameters.class).get(0);
+	}
+
+	private Iterator<Row> rowsOf(Object source) throws Exception {
+		final String pattern = getParametersMethod().getAnnotation(Parameters.class).name();
+		if (source instanceof MappedTestVectors) {
+			return new VectorRowIterator(pattern, (MappedTestVectors) source);
+		}
+		return new ArrayRowIterator(pattern, iteratorOf(source));
+	}
+
+	private static Iterator<?> iteratorOf(Object source) throws Exception {
+		if (source instanceof Iterator) {
+			return (Iterator<?>) source;
+		}
+		if (source instanceof Iterable) {
+			return ((Iterable<?>) source).iterator();
+		}
+		if (source instanceof Stream) {
+			return ((Stream<?>) source).iterator();
+		}
+		if (source instanceof Object[]) {
+			return Arrays.asList((Object[]) source).iterator();
+		}
+		String message = "Method marked as @Parameters returned %s, but an Iterator, Iterable, Stream, array or %s is expected.";
+		message = String.format(message, source == null ? "null" : source.getClass().getName(), MappedTestVectors.class.getSimpleName());
+		throw new Exception(message);
+	}
+
+	private List<FrameworkField> getAnnotatedFields() {
+		return getTestClass().getAnnotatedFields(Parameter.class);
+	}
+
+	private boolean fieldsAreAnnotated() {
+		return !getAnnotatedFields().isEmpty();
+	}
+
+	/**
+	 * Formats the name of a row according to the name pattern prescribed by the @Parameters
+	 * annotation. The parameters are only converted to an array if the pattern refers to them.
+	 */
+	private static String formatName(String pattern, int index, Row row) {
+		final String name = pattern.replaceAll("\\{index\\}", Integer.toString(index));
+		if (name.indexOf('{') < 0 && name.indexOf('\'') < 0) {
+			return "[" + name + "]";
+		}
+		return "[" + MessageFormat.format(name, row.toArray()) + "]";
+	}
+
+	/**
+	 * Single row of parameters together with the name of the row (already formatted according
+	 * to the name pattern prescribed by the @Parameters annotation).
+	 */
+	protected abstract static class Row {
+
+		String name;
+
+		abstract int size();
+
+		abstract Object get(int index);
+
+		abstract Object[] toArray();
+
+		/**
+		 * Sets the value of the given field to the parameter with the given index. Subclasses
+		 * holding primitive values can override this method to avoid boxing.
+		 */
+		void inject(Object testInstance, Field field, int index) throws IllegalAccessException {
+			field.set(testInstance, get(index));
+		}
+	}
+
+	/**
+	 * Row whose parameters are provided as an array of objects, which is the usual case.
+	 */
+	private static final class ArrayRow extends Row {
+
+		private final Object[] parameters;
+
+		ArrayRow(Object[] parameters) {
+			this.parameters = parameters;
+		}
+
+		@Override
+		int size() {
+			return this.parameters.length;
+		}
+
+		@Override
+		Object get(int index) {
+			return this.parameters[index];
+		}
+
+		@Override
+		Object[] toArray() {
+			return this.parameters;
+		}
+	}
+
+	/**
+	 * Row representing a single record of {@link MappedTestVectors}. The values are read
+	 * directly from the mapped file, and int fields are set without boxing.
+	 */
+	private static final class VectorRow extends Row {
+
+		private final MappedTestVectors vectors;
+
+		private final int record;
+
+		VectorRow(MappedTestVectors vectors, int record) {
+			this.vectors = vectors;
+			this.record = record;
+		}
+
+		@Override
+		int size() {
+			return this.vectors.getRecordWidth();
+		}
+
+		@Override
+		Object get(int index) {
+			return this.vectors.get(this.record, index);
+		}
+
+		@Override
+		Object[] toArray() {
+			final Object[] result = new Object[size()];
+			for (int index = 0; index < result.length; index++) {
+				result[index] = get(index);
+			}
+			return result;
+		}
+
+		@Override
+		void inject(Object testInstance, Field field, int index) throws IllegalAccessException {
+			if (field.getType() == int.class) {
+				field.setInt(testInstance, this.vectors.get(this.record, index));
+			} else {
+				super.inject(testInstance, field, index);
+			}
+		}
+	}
+
+	private static final class ArrayRowIterator implements Iterator<Row> {
+
+		private final String pattern;
+
+		private final Iterator<?> source;
+
+		private int index = 0;
+
+		ArrayRowIterator(String pattern, Iterator<?> source) {
+			this.pattern = pattern;
+			this.source = source;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.source.hasNext();
+		}
+
+		@Override
+		public Row next() {
+			final Object rowData = this.source.next();
+			final Object[] parameters = (rowData instanceof Object[]) ? (Object[]) rowData : new Object[] { rowData };
+			final Row row = new ArrayRow(parameters);
+			row.name = formatName(this.pattern, this.index++, row);
+			return row;
+		}
+	}
+
+	private static final class VectorRowIterator implements Iterator<Row> {
+
+		private final String pattern;
+
+		private final MappedTestVectors vectors;
+
+		private int record = 0;
+
+		VectorRowIterator(String pattern, MappedTestVectors vectors) {
+			this.pattern = pattern;
+			this.vectors = vectors;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.record < this.vectors.getRecordCount();
+		}
+
+		@Override
+		public Row next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final Row row = new VectorRow(this.vectors, this.record);
+			row.name = formatName(this.pattern, this.record++, row);
+			return row;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.parametrization;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Command line tool (as well as a utility class usable from test fixtures) creating test vector
+ * files that can be read by {@link MappedTestVectors}. The records are written in batches, using
+ * a single reusable buffer, so even files with hundreds of millions of records can be generated
+ * without any significant memory consumption.
+ * <p>
+ * Usage: <code>TestVectorFileGenerator &lt;output-file&gt; &lt;min-input&gt; &lt;max-input&gt;</code>
+ * creates (input, expected outcome) pairs for {@link SquareRoot} covering the given range.
+ */
+public class TestVectorFileGenerator {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The largest input whose square still fits into an int value.
+	 */
+	private static final int MAX_SQUARE_INPUT = 46_340;
+
+	/**
+	 * Strategy filling the values of a single record. The given array is reused for all records,
+	 * and the records are generated in ascending order.
+	 */
+	@FunctionalInterface
+	public interface RecordGenerator {
+		void generate(int record, int[] values);
+	}
+
+	/**
+	 * Avoids instantiation of this utility class.
+	 */
+	private TestVectorFileGenerator() {}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3) {
+			System.err.println("Usage: TestVectorFileGenerator <output-file> <min-input> <max-input>");
+			System.exit(1);
+		}
+		final Path file = Paths.get(args[0]);
+		final int minInput = Integer.parseInt(args[1]);
+		final int maxInput = Integer.parseInt(args[2]);
+		generateSquareRootVectors(file, minInput, maxInput);
+		System.out.printf("%d test vectors written to %s%n", maxInput - minInput + 1, file);
+	}
+
+	/**
+	 * Creates (input, expected outcome) pairs for {@link SquareRoot} covering the given range.
+	 * The expected outcomes are deliberately not calculated by the SUT itself; otherwise, the
+	 * test cases would just verify that the SUT returns the same value twice. The squares are
+	 * built incrementally instead, as (x + 1)^2 = x^2 + 2x + 1, starting with the square of the
+	 * lower bound of the range, which is the sum of the first |lower bound| odd numbers.
+	 */
+	public static void generateSquareRootVectors(Path file, int minInput, int maxInput) throws IOException {
+		if (minInput > maxInput || Math.abs((long) minInput) > MAX_SQUARE_INPUT || Math.abs((long) maxInput) > MAX_SQUARE_INPUT) {
+			String message = "Invalid input range [%d; %d], the absolute values of the bounds must not exceed %d.";
+			message = String.format(message, minInput, maxInput, MAX_SQUARE_INPUT);
+			throw new IllegalArgumentException(message);
+		}
+		final long[] square = { sumOfOddNumbers(Math.abs(minInput)) };
+		// relies on the records being generated one after another, in ascending order
+		generate(file, 2, maxInput - minInput + 1, (record, values) -> {
+			final int input = minInput + record;
+			values[0] = input;
+			values[1] = Math.toIntExact(square[0]);
+			square[0] += 2L * input + 1;
+		});
+	}
+
+	private static long sumOfOddNumbers(int count) {
+		long result = 0;
+		for (int index = 0; index < count; index++) {
+			result += 2 * index + 1;
+		}
+		return result;
+	}
+
+	public static void generate(Path file, int recordWidth, int recordCount, RecordGenerator generator) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, 4 * (recordWidth + MappedTestVectors.HEADER_SIZE)));
+		final int[] values = new int[recordWidth];
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			buffer.putInt(MappedTestVectors.MAGIC_NUMBER).putInt(recordWidth).putInt(recordCount);
+			for (int record = 0; record < recordCount; record++) {
+				if (buffer.remaining() < 4 * recordWidth) {
+					flush(buffer, channel);
+				}
+				generator.generate(record, values);
+				for (final int value : values) {
+					buffer.putInt(value);
+				}
+			}
+			flush(buffer, channel);
+		}
+	}
+
+	private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * Rule measuring the number of bytes allocated on the heap by the thread executing a test
+ * case, and failing the test case if it exceeds the budget specified by the
+ * {@link AllocationBudget} annotation. The number of allocated bytes is printed to stdout for
+ * each and every test case, regardless of whether it has a budget.
+ * <p>
+ * Be aware of the fact that the measurement involves the setup/tear-down methods marked as
+ * {@code @Before}/{@code @After} as well as several kilobytes allocated by JUnit and by the
+ * JVM itself (e.g. when the test method is invoked via reflection, or when a class is loaded).
+ * Therefore, in order to verify that a piece of code does not allocate at all, invoke it many
+ * times (e.g. a million times) within the test method, and specify a small budget which covers
+ * the constant overhead, but not a single allocation per invocation. The measurement relies
+ * on the com.sun.management.ThreadMXBean extension. If it is not supported by the JVM, the
+ * budgets are not enforced.
+ */
+public class AllocationBudgetRule implements TestRule {
+
+	private final com.sun.management.ThreadMXBean threadBean;
+
+	public AllocationBudgetRule() {
+		this.threadBean = getThreadBean();
+	}
+
+	private static com.sun.management.ThreadMXBean getThreadBean() {
+		final java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+			return null;
+		}
+		final com.sun.management.ThreadMXBean result = (com.sun.management.ThreadMXBean) threadBean;
+		if (!result.isThreadAllocatedMemorySupported()) {
+			return null;
+		}
+		if (!result.isThreadAllocatedMemoryEnabled()) {
+			result.setThreadAllocatedMemoryEnabled(true);
+		}
+		return result;
+	}
+
+	@Override
+	public Statement apply(Statement base, Description description) {
+		if (this.threadBean == null) {
+			System.out.println("Thread allocation counters not supported, allocation budget not enforced for " + description);
+			return base;
+		}
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				final long threadId = Thread.currentThread().getId();
+				final long allocatedBefore = AllocationBudgetRule.this.threadBean.getThreadAllocatedBytes(threadId);
+				base.evaluate();
+				final long allocatedBytes = AllocationBudgetRule.this.threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+				verifyBudget(description, allocatedBytes);
+			}
+		};
+	}
+
+	private static void verifyBudget(Description description, long allocatedBytes) {
+		final AllocationBudget budget = getBudget(description);
+		if (budget == null) {
+			String message = "%s allocated %d bytes (no budget)";
+			message = String.format(message, description.getDisplayName(), allocatedBytes);
+			System.out.println(message);
+			return;
+		}
+
+		String message = "%s allocated %d bytes (budget = %d bytes)";
+		message = String.format(message, description.getDisplayName(), allocatedBytes, budget.bytes());
+		System.out.println(message);
+		if (allocatedBytes > budget.bytes()) {
+			message = "%s allocated %d bytes, which exceeds its allocation budget of %d bytes.";
+			message = String.format(message, description.getDisplayName(), allocatedBytes, budget.bytes());
+			throw new AssertionError(message);
+		}
+	}
+
+	private static AllocationBudget getBudget(Description description) {
+		final AllocationBudget methodBudget = description.getAnnotation(AllocationBudget.class);
+		if (methodBudget != null || description.getTestClass() == null) {
+			return methodBudget;
+		}
+		return description.getTestClass().getAnnotation(AllocationBudget.class);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import org.hamcrest.Matcher;
+import org.junit.Rule;
+import org.junit.Test;
+
+import jch.education.junit4sandbox.parametrization.SquareRoot;
+
+/**
+ * This experimental test fixture illustrates the {@link AllocationBudgetRule}. The test cases
+ * lock in the guarantee that the square root calculation and the success path of a Hamcrest
+ * matcher do not allocate anything on the heap. Each test case invokes the verified code
+ * a million times, so even a single allocation per invocation would exceed the budget by
+ * several orders of magnitude, whereas the constant overhead of JUnit itself fits into the
+ * budget (the overhead also involves the loading of classes used for the first time). The
+ * matcher is created together with the test fixture instance, i.e. before the measurement
+ * starts.
+ */
+public class AllocationBudgetTestFixture {
+
+	private static final int INVOCATION_COUNT = 1_000_000;
+
+	private static final long CONSTANT_OVERHEAD_BUDGET = 64 * 1024;
+
+	@Rule
+	public final AllocationBudgetRule allocationBudget = new AllocationBudgetRule();
+
+	private final Matcher<Integer> greaterThanTen = greaterThan(10);
+
+	@Test
+	@AllocationBudget(bytes = CONSTANT_OVERHEAD_BUDGET)
+	public void squareRootCalculationDoesNotAllocate() {
+		long sum = 0;
+		for (int value = 0; value < INVOCATION_COUNT; value++) {
+			sum += SquareRoot.calculate(value % 100);
+		}
+		assertEquals(3_283_500_000L, sum);
+	}
+
+	/**
+	 * The values passed to the matcher are within the range of the Integer cache, so boxing
+	 * does not allocate either.
+	 */
+	@Test
+	@AllocationBudget(bytes = CONSTANT_OVERHEAD_BUDGET)
+	public void successPathOfMatcherDoesNotAllocate() {
+		for (int i = 0; i < INVOCATION_COUNT; i++) {
+			assertThat(11 + i % 100, this.greaterThanTen);
+		}
+	}
+}
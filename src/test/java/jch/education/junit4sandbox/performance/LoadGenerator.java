@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test harness driving a {@link WorkloadMix} by several threads concurrently for a given
+ * time. Micro-benchmarks (and the {@link PerfTestRule}) measure operations in isolation, whereas
+ * this harness shows how the operations behave under sustained, contended load. Two load models
+ * are supported:
+ * <ul>
+ * <li>In the closed-loop model, each thread issues the next request as soon as the previous one
+ * has completed. If a request rate is given, the threads are throttled so that the overall rate
+ * does not exceed it; if a request takes longer than the interval between two requests, the
+ * requests which would have been issued in the meantime are accounted for in the response time
+ * histogram (the same correction as HdrHistogram's <code>recordValueWithExpectedInterval</code>).
+ * Without a request rate, there is no schedule the response times could be corrected against,
+ * so the response times are just the service times.</li>
+ * <li>In the open-loop model, the requests are issued according to a fixed schedule given by the
+ * request rate, regardless of how long the previous requests took. If a thread falls behind
+ * the schedule, it issues the delayed requests as quickly as possible, and their latencies are
+ * measured from the intended start times rather than from the actual ones. This is how a real
+ * client would perceive the latency, and it is the primary means of avoiding coordinated
+ * omission.</li>
+ * </ul>
+ * Keep in mind that the threads wait for the intended start times using
+ * <code>LockSupport.parkNanos</code>, so the response times of throttled requests include the
+ * wake-up latency of the thread (typically tens of microseconds).
+ * <p>
+ * Usage: <code>LoadGenerator &lt;closed|open&gt; &lt;requests-per-second&gt; &lt;concurrency&gt;
+ * &lt;duration-seconds&gt;</code> runs the standard workload mix (zero request rate means an
+ * unthrottled closed loop). A warm-up run precedes the measured one.
+ */
+public final class LoadGenerator {
+
+	/**
+	 * Load model, see {@link LoadGenerator} for details.
+	 */
+	public enum Model {
+		CLOSED_LOOP,
+		OPEN_LOOP
+	}
+
+	private static final long SEED = 0x5eed;
+
+	private static final long WARMUP_MILLIS = 2_000;
+
+	private final WorkloadMix mix;
+
+	private final Model model;
+
+	private final int concurrency;
+
+	private final long intervalNanos;
+
+	private final long durationNanos;
+
+	/**
+	 * @param requestsPerSecond the overall request rate (for all threads together); zero means
+	 *                          unthrottled, which is only allowed for the closed-loop model
+	 */
+	public LoadGenerator(WorkloadMix mix, Model model, int concurrency, double requestsPerSecond, long durationMillis) {
+		if (concurrency <= 0 || requestsPerSecond < 0 || durationMillis <= 0) {
+			String message = "Invalid load test parameters (concurrency = %d, requests per second = %f, duration = %d ms).";
+			message = String.format(message, concurrency, requestsPerSecond, durationMillis);
+			throw new IllegalArgumentException(message);
+		}
+		if (model == Model.OPEN_LOOP && requestsPerSecond == 0) {
+			throw new IllegalArgumentException("The open-loop model requires a request rate.");
+		}
+		this.mix = mix;
+		this.model = model;
+		this.concurrency = concurrency;
+		this.intervalNanos = (requestsPerSecond == 0) ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / requestsPerSecond);
+		this.durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMillis);
+	}
+
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+		if (args.length != 4 || !("closed".equals(args[0]) || "open".equals(args[0]))) {
+			System.err.println("Usage: LoadGenerator <closed|open> <requests-per-second> <concurrency> <duration-seconds>");
+			System.exit(1);
+		}
+		final Model model = "open".equals(args[0]) ? Model.OPEN_LOOP : Model.CLOSED_LOOP;
+		final double requestsPerSecond = Double.parseDouble(args[1]);
+		final int concurrency = Integer.parseInt(args[2]);
+		final long durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(args[3]));
+
+		new LoadGenerator(WorkloadMix.standardMix(), model, concurrency, requestsPerSecond, WARMUP_MILLIS).run();
+		final LoadResult result = new LoadGenerator(WorkloadMix.standardMix(), model, concurrency, requestsPerSecond, durationMillis).run();
+		System.out.printf("%s, %d threads, %s requests/s%n", model, concurrency, requestsPerSecond == 0 ? "unthrottled" : args[1]);
+		result.printSummary(System.out);
+	}
+
+	public LoadResult run() throws InterruptedException, ExecutionException {
+		final LoadResult result = new LoadResult(this.mix.getNames());
+		final SplittableRandom seedGenerator = new SplittableRandom(SEED);
+		final ExecutorService executor = Executors.newFixedThreadPool(this.concurrency);
+		try {
+			final long startTime = System.nanoTime();
+			final List<Future<?>> workers = new ArrayList<>(this.concurrency);
+			for (int worker = 0; worker < this.concurrency; worker++) {
+				final SplittableRandom random = seedGenerator.split();
+				// the workers are staggered so that the requests are spread evenly over time
+				final long firstStartTime = startTime + this.intervalNanos * worker / this.concurrency;
+				workers.add(executor.submit(() -> runWorker(result, random, firstStartTime, startTime + this.durationNanos)));
+			}
+			for (final Future<?> worker : workers) {
+				worker.get();
+			}
+			result.setElapsedNanos(System.nanoTime() - startTime);
+		} finally {
+			executor.shutdown();
+		}
+		return result;
+	}
+
+	private void runWorker(LoadResult result, SplittableRandom random, long firstStartTime, long endTime) {
+		long intendedStartTime = firstStartTime;
+		while ((this.intervalNanos == 0) ? System.nanoTime() < endTime : intendedStartTime < endTime) {
+			waitUntil(intendedStartTime);
+			final int operation = this.mix.choose(random);
+			final long actualStartTime = System.nanoTime();
+			try {
+				this.mix.getOperation(operation).execute(random);
+			} catch (Exception e) {
+				result.recordError(operation);
+			}
+			final long finishTime = System.nanoTime();
+			final long serviceTime = finishTime - actualStartTime;
+			result.recordServiceTime(operation, serviceTime);
+
+			if (this.model == Model.OPEN_LOOP) {
+				result.recordResponseTime(operation, finishTime - intendedStartTime);
+				intendedStartTime += this.intervalNanos;
+			} else {
+				result.recordResponseTime(operation, serviceTime);
+				if (this.intervalNanos > 0) {
+					for (long missedLatency = serviceTime - this.intervalNanos; missedLatency > 0; missedLatency -= this.intervalNanos) {
+						result.recordResponseTime(operation, missedLatency);
+					}
+				}
+				intendedStartTime = Math.max(intendedStartTime + this.intervalNanos, finishTime);
+			}
+		}
+	}
+
+	private static void waitUntil(long time) {
+		long remaining;
+		while ((remaining = time - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import jch.education.junit4sandbox.performance.LoadGenerator.Model;
+
+/**
+ * This experimental test fixture illustrates the {@link LoadGenerator}. The load tests are much
+ * shorter than a real load test would be, so that they do not slow down the test suite too much.
+ * The last test case illustrates coordinated omission: a single stall of the SUT hardly affects
+ * the measured service times, but all requests scheduled during the stall are delayed, which is
+ * only visible in the corrected response times.
+ */
+public class LoadGeneratorTestFixture {
+
+	private static final String[] OPERATIONS = { "square-root", "point-3d", "trouble-maker" };
+
+	@Test
+	public void closedLoopLoadWithStandardWorkloadMix() throws InterruptedException, ExecutionException {
+		final LoadResult result = new LoadGenerator(WorkloadMix.standardMix(), Model.CLOSED_LOOP, 2, 0, 300).run();
+		result.printSummary(System.out);
+		assertTrue(result.getThroughput() > 0);
+		for (final String operation : OPERATIONS) {
+			assertTrue(result.getServiceTimes(operation).getCount() > 0);
+			assertEquals(0, result.getErrorCount(operation));
+		}
+	}
+
+	@Test
+	public void openLoopLoadWithStandardWorkloadMix() throws InterruptedException, ExecutionException {
+		final LoadResult result = new LoadGenerator(WorkloadMix.standardMix(), Model.OPEN_LOOP, 2, 2000, 300).run();
+		result.printSummary(System.out);
+		for (final String operation : OPERATIONS) {
+			assertEquals(0, result.getErrorCount(operation));
+			assertTrue(result.getResponseTimes(operation).getMax() >= result.getServiceTimes(operation).getMax());
+		}
+	}
+
+	@Test
+	public void stallIsOnlyVisibleInCorrectedResponseTimes() throws InterruptedException, ExecutionException {
+		final AtomicBoolean stalled = new AtomicBoolean(false);
+		final WorkloadMix mix = new WorkloadMix().add("stall", 1, random -> {
+			if (stalled.compareAndSet(false, true)) {
+				TimeUnit.MILLISECONDS.sleep(100);
+			}
+		});
+		final LoadResult result = new LoadGenerator(mix, Model.OPEN_LOOP, 1, 1000, 500).run();
+		result.printSummary(System.out);
+		assertTrue(result.getServiceTimes("stall").getValueAtPercentile(99.0) < TimeUnit.MILLISECONDS.toNanos(10));
+		assertTrue(result.getResponseTimes("stall").getValueAtPercentile(99.0) > TimeUnit.MILLISECONDS.toNanos(50));
+	}
+}
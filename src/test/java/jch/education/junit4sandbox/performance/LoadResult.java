@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import jch.education.junit4sandbox.instrumentation.Histogram;
+
+/**
+ * Outcome of a load test performed by the {@link LoadGenerator}. For each operation of the
+ * workload mix, there are two latency histograms. The service time histogram contains the
+ * durations of the operations as measured around their invocations. The response time histogram
+ * is corrected for coordinated omission: if the load generator has fallen behind its schedule
+ * (because some previous operation took too long), the service time does not reflect the time
+ * the request would have waited, so the response time histogram contains the latencies
+ * measured from the intended start times instead (see {@link LoadGenerator} for details).
+ */
+public final class LoadResult {
+
+	private static final double[] REPORTED_PERCENTILES = { 50.0, 99.0, 99.9 };
+
+	private final List<String> operationNames;
+
+	private final Histogram[] serviceTimes;
+
+	private final Histogram[] responseTimes;
+
+	private final AtomicLongArray errorCounts;
+
+	private volatile long elapsedNanos;
+
+	LoadResult(List<String> operationNames) {
+		this.operationNames = operationNames;
+		this.serviceTimes = new Histogram[operationNames.size()];
+		this.responseTimes = new Histogram[operationNames.size()];
+		for (int index = 0; index < operationNames.size(); index++) {
+			this.serviceTimes[index] = new Histogram();
+			this.responseTimes[index] = new Histogram();
+		}
+		this.errorCounts = new AtomicLongArray(operationNames.size());
+	}
+
+	void recordServiceTime(int operation, long nanos) {
+		this.serviceTimes[operation].record(nanos);
+	}
+
+	void recordResponseTime(int operation, long nanos) {
+		this.responseTimes[operation].record(nanos);
+	}
+
+	void recordError(int operation) {
+		this.errorCounts.incrementAndGet(operation);
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public Histogram getServiceTimes(String operationName) {
+		return this.serviceTimes[indexOf(operationName)];
+	}
+
+	public Histogram getResponseTimes(String operationName) {
+		return this.responseTimes[indexOf(operationName)];
+	}
+
+	public long getErrorCount(String operationName) {
+		return this.errorCounts.get(indexOf(operationName));
+	}
+
+	private int indexOf(String operationName) {
+		final int result = this.operationNames.indexOf(operationName);
+		if (result < 0) {
+			String message = "Unknown operation %s, known operations are %s.";
+			message = String.format(message, operationName, this.operationNames);
+			throw new IllegalArgumentException(message);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of operations performed (including the failed ones).
+	 */
+	public long getOperationCount() {
+		long result = 0;
+		for (final Histogram serviceTimes : this.serviceTimes) {
+			result += serviceTimes.getCount();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of operations per second.
+	 */
+	public double getThroughput() {
+		return this.elapsedNanos == 0 ? 0.0 : getOperationCount() * 1_000_000_000.0 / this.elapsedNanos;
+	}
+
+	public void printSummary(PrintStream output) {
+		output.printf("%d operations in %.3f s, throughput %.1f operations/s%n", getOperationCount(), this.elapsedNanos / 1_000_000_000.0, getThroughput());
+		for (int index = 0; index < this.operationNames.size(); index++) {
+			output.printf("  %s: %d operations, %d errors%n", this.operationNames.get(index), this.serviceTimes[index].getCount(), this.errorCounts.get(index));
+			printHistogram(output, "service time ", this.serviceTimes[index]);
+			printHistogram(output, "response time", this.responseTimes[index]);
+		}
+	}
+
+	private static void printHistogram(PrintStream output, String label, Histogram histogram) {
+		output.printf("    %s", label);
+		for (final double percentile : REPORTED_PERCENTILES) {
+			output.printf("  p%s = %.3f ms", formatPercentile(percentile), toMillis(histogram.getValueAtPercentile(percentile)));
+		}
+		output.printf("  max = %.3f ms%n", toMillis(histogram.getMax()));
+	}
+
+	private static String formatPercentile(double percentile) {
+		return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Baselines for performance tests guarded by the {@link PerfTestRule}, stored in a local plain
+ * text file. Each line contains the name of a test case followed by the mean durations (in
+ * nanoseconds) measured by the last several independent runs, i.e. separate JVMs. The spread
+ * of these means reflects the variation between runs (JIT compilation, garbage collection,
+ * order of the test fixtures), which is not visible within a single run. The file is located in
+ * the current directory by default; its location can be overridden using the
+ * <code>perf.baseline.file</code> system property.
+ * <p>
+ * Absolute durations are only comparable on the machine they have been measured on. Therefore,
+ * the file also contains a fingerprint of the environment (host name, operating system,
+ * processor architecture, number of processors and JVM) the baselines have been recorded in,
+ * and it is not meant to be committed. The baselines are only valid if the fingerprint matches
+ * the current environment.
+ */
+final class PerfBaselines {
+
+	private static final String FILE_PROPERTY = "perf.baseline.file";
+
+	private static final String DEFAULT_FILE = "perf-baselines.txt";
+
+	private static final Path FILE = Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+
+	private static final String ENVIRONMENT_KEY = "environment";
+
+	private static final String CURRENT_ENVIRONMENT = fingerprintEnvironment();
+
+	/**
+	 * Number of the most recent runs kept for each test case; older runs are discarded, so the
+	 * baselines follow intentional changes of the SUT.
+	 */
+	static final int MAX_RECORDED_RUNS = 10;
+
+	/**
+	 * Avoids instantiation of this utility class.
+	 */
+	private PerfBaselines() {}
+
+	/**
+	 * Returns the statistics of the mean durations recorded by the particular runs of the given
+	 * test case, or null if no run has been recorded.
+	 */
+	static synchronized SampleStatistics find(String testName) throws IOException {
+		final List<Long> runMeans = load().baselines.get(testName);
+		if (runMeans == null) {
+			return null;
+		}
+		final long[] values = new long[runMeans.size()];
+		for (int index = 0; index < values.length; index++) {
+			values[index] = runMeans.get(index);
+		}
+		return SampleStatistics.of(values);
+	}
+
+	/**
+	 * Returns the fingerprint of the environment the stored baselines have been recorded in, or
+	 * null if there are no baselines.
+	 */
+	static synchronized String findRecordingEnvironment() throws IOException {
+		return load().environment;
+	}
+
+	static String getCurrentEnvironment() {
+		return CURRENT_ENVIRONMENT;
+	}
+
+	/**
+	 * Adds the mean duration measured by the current run to the baseline of the given test case,
+	 * and returns the number of runs the baseline consists of. If the stored baselines have been
+	 * recorded in a different environment, they are discarded.
+	 */
+	static synchronized int store(String testName, long runMean) throws IOException {
+		final BaselineFile content = load();
+		final Map<String, List<Long>> baselines = CURRENT_ENVIRONMENT.equals(content.environment) ? content.baselines : new TreeMap<>();
+		final List<Long> runMeans = baselines.computeIfAbsent(testName, name -> new ArrayList<>());
+		runMeans.add(runMean);
+		if (runMeans.size() > MAX_RECORDED_RUNS) {
+			runMeans.remove(0);
+		}
+		if (FILE.getParent() != null) {
+			Files.createDirectories(FILE.getParent());
+		}
+		try (final Writer writer = Files.newBufferedWriter(FILE, StandardCharsets.UTF_8)) {
+			writer.write("# test case, mean durations [ns] of the recorded runs (oldest first)\n");
+			writer.write(ENVIRONMENT_KEY + " " + CURRENT_ENVIRONMENT + "\n");
+			for (final Map.Entry<String, List<Long>> entry : baselines.entrySet()) {
+				writer.write(entry.getKey());
+				for (final long value : entry.getValue()) {
+					writer.write(" " + value);
+				}
+				writer.write("\n");
+			}
+		}
+		return runMeans.size();
+	}
+
+	private static BaselineFile load() throws IOException {
+		final BaselineFile result = new BaselineFile();
+		if (!Files.exists(FILE)) {
+			return result;
+		}
+		try (final BufferedReader reader = Files.newBufferedReader(FILE, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				final String[] fields = line.split("\\s+");
+				if (fields.length < 2) {
+					String message = "Invalid line in the baseline file %s: %s";
+					message = String.format(message, FILE, line);
+					throw new IOException(message);
+				}
+				if (ENVIRONMENT_KEY.equals(fields[0])) {
+					result.environment = fields[1];
+					continue;
+				}
+				final List<Long> runMeans = new ArrayList<>(fields.length - 1);
+				for (int index = 1; index < fields.length; index++) {
+					runMeans.add(Long.parseLong(fields[index]));
+				}
+				result.baselines.put(fields[0], runMeans);
+			}
+		} catch (NumberFormatException e) {
+			String message = "Invalid duration in the baseline file %s: %s";
+			message = String.format(message, FILE, e.getMessage());
+			throw new IOException(message, e);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the fingerprint of the current environment. The fingerprint must not contain any
+	 * whitespace, as it is stored in a single field of the baseline file.
+	 */
+	private static String fingerprintEnvironment() {
+		final String fingerprint = String.join("/", getHostName(), System.getProperty("os.name"), System.getProperty("os.arch"),
+				Runtime.getRuntime().availableProcessors() + "-cpus", System.getProperty("java.vm.name"), System.getProperty("java.vm.version"));
+		return fingerprint.replaceAll("\\s+", "_");
+	}
+
+	private static String getHostName() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		} catch (final IOException e) {
+			return "unknown-host";
+		}
+	}
+
+	private static class BaselineFile {
+
+		private String environment;
+
+		private final Map<String, List<Long>> baselines = new TreeMap<>();
+	}
+}
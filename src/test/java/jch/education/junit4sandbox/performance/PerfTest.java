@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a test case as a performance test whose duration is guarded by the {@link PerfTestRule}.
+ * The test case is executed repeatedly, and its duration is compared with the baseline.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PerfTest {
+
+	/**
+	 * Number of executions preceding the measurement, allowing the JIT compiler to optimize
+	 * the tested code.
+	 */
+	int warmupIterations() default 10;
+
+	int measuredIterations() default 30;
+
+	/**
+	 * Maximal tolerated slowdown relative to the baseline (e.g. 0.25 means 25%). A slowdown
+	 * beyond the threshold only leads to a failure if it also exceeds the variation between the
+	 * runs the baseline has been recorded by.
+	 */
+	double threshold() default 0.25;
+}
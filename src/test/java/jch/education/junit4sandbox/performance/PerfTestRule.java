@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import org.junit.Assume;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * Rule guarding the duration of test cases marked as {@link PerfTest} against a locally stored
+ * baseline (see {@link PerfBaselines}). Such a test case is executed repeatedly: first several
+ * times without measurement (warm-up), then several times with measurement. The mean duration
+ * and its 95% confidence interval are printed to stdout and compared with the baseline.
+ * <p>
+ * The baseline consists of the mean durations measured by several independent runs. The
+ * measurements within a single run are not independent (they share the JIT compiled code, the
+ * heap layout etc.), so their variance says little about the variation between runs. Therefore,
+ * the mean of the current run is compared with the distribution of the recorded run means: the
+ * test case fails only if it is slower than the baseline by more than the threshold, and if it
+ * exceeds the 95% upper prediction bound of the recorded run means, so the usual run-to-run
+ * variation does not make the test case red. Test cases not marked as PerfTest are executed as
+ * usual.
+ * <p>
+ * If the <code>perf.baseline.record</code> system property is set to true, the mean duration
+ * of the current run is added to the baseline instead of being compared with it; the baseline
+ * keeps the most recent runs only. Test cases whose baseline consists of less than three runs
+ * are never failing. As the baselines are specific to the machine they have been recorded on,
+ * the test cases are skipped (by means of a violated assumption) if the baselines have been
+ * recorded in a different environment.
+ * <p>
+ * The setup/tear-down methods marked as @Before/@After are part of each execution, and all
+ * executions share a single test fixture instance.
+ */
+public class PerfTestRule implements TestRule {
+
+	private static final String RECORD_PROPERTY = "perf.baseline.record";
+
+	private static final int MIN_BASELINE_RUNS = 3;
+
+	@Override
+	public Statement apply(Statement base, Description description) {
+		final PerfTest perfTest = description.getAnnotation(PerfTest.class);
+		if (perfTest == null) {
+			return base;
+		}
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				if (perfTest.measuredIterations() < 2 || perfTest.warmupIterations() < 0 || perfTest.threshold() < 0) {
+					throw new IllegalArgumentException("PerfTest requires at least two measured iterations and non-negative warm-up iterations and threshold.");
+				}
+				for (int i = 0; i < perfTest.warmupIterations(); i++) {
+					base.evaluate();
+				}
+				final long[] durations = new long[perfTest.measuredIterations()];
+				for (int i = 0; i < durations.length; i++) {
+					final long startTime = System.nanoTime();
+					base.evaluate();
+					durations[i] = System.nanoTime() - startTime;
+				}
+				evaluateDurations(testName(description), SampleStatistics.of(durations), perfTest.threshold());
+			}
+		};
+	}
+
+	private static String testName(Description description) {
+		return description.getClassName() + "#" + description.getMethodName();
+	}
+
+	private static void evaluateDurations(String testName, SampleStatistics current, double threshold) throws Exception {
+		if (Boolean.getBoolean(RECORD_PROPERTY)) {
+			final int runCount = PerfBaselines.store(testName, Math.round(current.getMean()));
+			System.out.printf("%s: %s (recorded as baseline run %d of at most %d)%n", testName, format(current), runCount, PerfBaselines.MAX_RECORDED_RUNS);
+			return;
+		}
+
+		final String recordingEnvironment = PerfBaselines.findRecordingEnvironment();
+		String environmentMessage = "The baselines have been recorded in the environment %s, the current environment is %s; use -D%s=true to record new ones.";
+		environmentMessage = String.format(environmentMessage, recordingEnvironment, PerfBaselines.getCurrentEnvironment(), RECORD_PROPERTY);
+		Assume.assumeTrue(environmentMessage, recordingEnvironment == null || recordingEnvironment.equals(PerfBaselines.getCurrentEnvironment()));
+
+		final SampleStatistics baseline = PerfBaselines.find(testName);
+		final int runCount = (baseline == null) ? 0 : baseline.getSize();
+		if (runCount < MIN_BASELINE_RUNS) {
+			String message = "%s: %s (baseline consists of %d of %d required runs, use -D%s=true to record more)";
+			message = String.format(message, testName, format(current), runCount, MIN_BASELINE_RUNS, RECORD_PROPERTY);
+			System.out.println(message);
+			return;
+		}
+
+		final double change = current.getMean() / baseline.getMean() - 1.0;
+		final double limit = Math.max(baseline.getMean() * (1.0 + threshold), baseline.getUpperPredictionBound());
+		System.out.printf("%s: %s, baseline %s (%d runs), limit %s, change %+.1f%%%n", testName, format(current), formatSpread(baseline), runCount,
+				formatMillis(limit), 100.0 * change);
+		if (current.getMean() > limit) {
+			String message = "%s is slower than its baseline: mean %s vs. %s (%+.1f%%, threshold %.1f%%, limit %s).";
+			message = String.format(message, testName, format(current), formatSpread(baseline), 100.0 * change, 100.0 * threshold, formatMillis(limit));
+			throw new AssertionError(message);
+		}
+	}
+
+	private static String format(SampleStatistics statistics) {
+		return String.format("%.3f ms +/- %.3f ms", statistics.getMean() / 1_000_000.0, statistics.getConfidenceIntervalHalfWidth() / 1_000_000.0);
+	}
+
+	/**
+	 * Formats the mean and the standard deviation of the given run means, as the spread of the
+	 * particular runs (rather than the confidence interval of their mean) matters.
+	 */
+	private static String formatSpread(SampleStatistics runMeans) {
+		return String.format("%.3f ms (sd %.3f ms)", runMeans.getMean() / 1_000_000.0, runMeans.getStandardDeviation() / 1_000_000.0);
+	}
+
+	private static String formatMillis(double nanos) {
+		return String.format("%.3f ms", nanos / 1_000_000.0);
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import jch.education.junit4sandbox.assertions.Point3D;
+import jch.education.junit4sandbox.parametrization.SquareRoot;
+
+/**
+ * This experimental test fixture illustrates the {@link PerfTestRule}. The test cases are
+ * ordinary JUnit test cases, so there is no need for a separate benchmark harness in order to
+ * find out that a change has made the SUT slower. As the baselines depend on the machine they
+ * have been recorded on, they are stored in the local file <code>perf-baselines.txt</code>
+ * rather than in the repository, and this test fixture is excluded from the surefire includes
+ * in our pom.xml (running concurrently with other test fixtures would distort the durations
+ * anyway). Use <code>mvn test -Dtest=PerformanceRegressionTestFixture</code> to run it. In
+ * order to record the baselines, run it at least three times with the additional
+ * <code>-Dperf.baseline.record=true</code> option; each run contributes its mean durations.
+ */
+public class PerformanceRegressionTestFixture {
+
+	private static final int INVOCATION_COUNT = 1_000_000;
+
+	/**
+	 * The results are stored here so that the JIT compiler cannot eliminate the calculations.
+	 */
+	private static volatile long sink;
+
+	@Rule
+	public final PerfTestRule perfTestRule = new PerfTestRule();
+
+	@Test
+	@PerfTest(warmupIterations = 200)
+	public void squareRootCalculation() {
+		long sum = 0;
+		for (int value = 0; value < INVOCATION_COUNT; value++) {
+			sum += SquareRoot.calculate(value);
+		}
+		sink = sum;
+	}
+
+	@Test
+	@PerfTest(warmupIterations = 200)
+	public void squaredDistanceOfPoints() {
+		long sum = 0;
+		for (int value = 0; value < INVOCATION_COUNT; value++) {
+			final Point3D point = new Point3D(value, value + 1, value + 2);
+			sum += SquareRoot.calculate(point.x) + SquareRoot.calculate(point.y) + SquareRoot.calculate(point.z);
+		}
+		sink = sum;
+	}
+}
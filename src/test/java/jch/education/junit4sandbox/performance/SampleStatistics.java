@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+/**
+ * Immutable summary of a sample of measurements (mean, standard deviation and size), including
+ * the Student's t-distribution based calculations needed for confidence intervals and for
+ * prediction bounds. The significance level is fixed at 5%.
+ */
+public final class SampleStatistics {
+
+	/**
+	 * Critical values of the t-distribution for two-sided 95% confidence intervals, indexed by
+	 * the degrees of freedom minus one. For more than 30 degrees of freedom, the normal
+	 * distribution is used.
+	 */
+	private static final double[] TWO_SIDED_CRITICAL_VALUES = {
+			12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+			2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+			2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042,
+	};
+
+	private static final double TWO_SIDED_NORMAL_CRITICAL_VALUE = 1.960;
+
+	/**
+	 * Critical values of the t-distribution for one-sided bounds at the 5% significance level.
+	 */
+	private static final double[] ONE_SIDED_CRITICAL_VALUES = {
+			6.314, 2.920, 2.353, 2.132, 2.015, 1.943, 1.895, 1.860, 1.833, 1.812,
+			1.796, 1.782, 1.771, 1.761, 1.753, 1.746, 1.740, 1.734, 1.729, 1.725,
+			1.721, 1.717, 1.714, 1.711, 1.708, 1.706, 1.703, 1.701, 1.699, 1.697,
+	};
+
+	private static final double ONE_SIDED_NORMAL_CRITICAL_VALUE = 1.645;
+
+	private final double mean;
+
+	private final double standardDeviation;
+
+	private final int size;
+
+	public SampleStatistics(double mean, double standardDeviation, int size) {
+		this.mean = mean;
+		this.standardDeviation = standardDeviation;
+		this.size = size;
+	}
+
+	public static SampleStatistics of(long[] values) {
+		double sum = 0;
+		for (final long value : values) {
+			sum += value;
+		}
+		final double mean = sum / values.length;
+		double squaredDeviations = 0;
+		for (final long value : values) {
+			squaredDeviations += (value - mean) * (value - mean);
+		}
+		final double variance = (values.length > 1) ? squaredDeviations / (values.length - 1) : 0;
+		return new SampleStatistics(mean, Math.sqrt(variance), values.length);
+	}
+
+	public double getMean() {
+		return this.mean;
+	}
+
+	public double getStandardDeviation() {
+		return this.standardDeviation;
+	}
+
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the half-width of the 95% confidence interval of the mean.
+	 */
+	public double getConfidenceIntervalHalfWidth() {
+		if (this.size < 2) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return criticalValue(TWO_SIDED_CRITICAL_VALUES, TWO_SIDED_NORMAL_CRITICAL_VALUE, this.size - 1) * standardError();
+	}
+
+	/**
+	 * Returns the one-sided 95% upper prediction bound, i.e. the value a single further
+	 * measurement drawn from the same distribution as this sample exceeds with the probability
+	 * of 5% only. In contrast with the confidence interval of the mean, the bound reflects the
+	 * spread of the particular measurements, so it does not shrink as the sample grows.
+	 */
+	public double getUpperPredictionBound() {
+		if (this.size < 2) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return this.mean + criticalValue(ONE_SIDED_CRITICAL_VALUES, ONE_SIDED_NORMAL_CRITICAL_VALUE, this.size - 1) * this.standardDeviation
+				* Math.sqrt(1.0 + 1.0 / this.size);
+	}
+
+	private double standardError() {
+		return this.standardDeviation / Math.sqrt(this.size);
+	}
+
+	private static double criticalValue(double[] table, double normalValue, int degreesOfFreedom) {
+		if (degreesOfFreedom < 1) {
+			return table[0];
+		}
+		return (degreesOfFreedom <= table.length) ? table[degreesOfFreedom - 1] : normalValue;
+	}
+}
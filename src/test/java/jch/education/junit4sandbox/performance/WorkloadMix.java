@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import jch.education.junit4sandbox.assertions.Point3D;
+import jch.education.junit4sandbox.exceptions.CustomException;
+import jch.education.junit4sandbox.exceptions.Severity;
+import jch.education.junit4sandbox.exceptions.TroubleMaker;
+import jch.education.junit4sandbox.parametrization.SquareRoot;
+
+/**
+ * Weighted mix of operations driven by the {@link LoadGenerator}. Each request picks one of the
+ * operations randomly, with probability proportional to the weight of the operation.
+ */
+public final class WorkloadMix {
+
+	/**
+	 * A single operation of the workload. The given random generator is owned by the calling
+	 * thread, so the operation can use it without any synchronization.
+	 */
+	@FunctionalInterface
+	public interface Operation {
+		void execute(SplittableRandom random) throws Exception;
+	}
+
+	private static final int POINT_COUNT = 64;
+
+	private final List<String> names = new ArrayList<>();
+
+	private final List<Operation> operations = new ArrayList<>();
+
+	private int[] cumulativeWeights = new int[0];
+
+	private int totalWeight = 0;
+
+	public WorkloadMix add(String name, int weight, Operation operation) {
+		if (weight <= 0) {
+			String message = "Invalid weight %d of operation %s, positive weight expected.";
+			message = String.format(message, weight, name);
+			throw new IllegalArgumentException(message);
+		}
+		this.totalWeight += weight;
+		this.names.add(name);
+		this.operations.add(operation);
+		this.cumulativeWeights = Arrays.copyOf(this.cumulativeWeights, this.cumulativeWeights.length + 1);
+		this.cumulativeWeights[this.cumulativeWeights.length - 1] = this.totalWeight;
+		return this;
+	}
+
+	/**
+	 * Creates the mix of the SUT operations of this project: square root calculations, processing
+	 * of {@link Point3D} instances, and the failure paths of {@link TroubleMaker} (throwing and
+	 * catching a {@link CustomException}, including the capture of the stack trace).
+	 */
+	public static WorkloadMix standardMix() {
+		return new WorkloadMix()
+				.add("square-root", 60, WorkloadMix::calculateSquareRoot)
+				.add("point-3d", 30, WorkloadMix::processPoints)
+				.add("trouble-maker", 10, WorkloadMix::makeTrouble);
+	}
+
+	private static void calculateSquareRoot(SplittableRandom random) {
+		final int value = random.nextInt(-46_340, 46_341);
+		if (SquareRoot.calculate(value) < 0) {
+			throw new IllegalStateException("Negative square of " + value);
+		}
+	}
+
+	private static void processPoints(SplittableRandom random) {
+		final Point3D origin = new Point3D(random.nextInt(1000), random.nextInt(1000), random.nextInt(1000));
+		long maxDistance = 0;
+		for (int index = 0; index < POINT_COUNT; index++) {
+			final Point3D point = new Point3D(random.nextInt(1000), random.nextInt(1000), random.nextInt(1000));
+			final long distance = (long) SquareRoot.calculate(point.x - origin.x) + SquareRoot.calculate(point.y - origin.y) + SquareRoot.calculate(point.z - origin.z);
+			maxDistance = Math.max(maxDistance, distance);
+		}
+		if (maxDistance > 3_000_000) {
+			throw new IllegalStateException("Point out of range, squared distance " + maxDistance);
+		}
+	}
+
+	private static void makeTrouble(SplittableRandom random) {
+		try {
+			if (random.nextBoolean()) {
+				TroubleMaker.makeSeriousProblem();
+			} else {
+				TroubleMaker.startEndOfTheWorld();
+			}
+		} catch (CustomException e) {
+			if (e.getSeverity() != Severity.SERIOUS_PROBLEM && e.getSeverity() != Severity.END_OF_THE_WORLD) {
+				throw new IllegalStateException("Unexpected severity " + e.getSeverity(), e);
+			}
+			return;
+		}
+		throw new IllegalStateException("TroubleMaker has not made any trouble.");
+	}
+
+	List<String> getNames() {
+		return Collections.unmodifiableList(this.names);
+	}
+
+	Operation getOperation(int index) {
+		return this.operations.get(index);
+	}
+
+	int size() {
+		return this.operations.size();
+	}
+
+	/**
+	 * Returns the index of a randomly chosen operation.
+	 */
+	int choose(SplittableRandom random) {
+		final int value = random.nextInt(this.totalWeight);
+		for (int index = 0; index < this.cumulativeWeights.length; index++) {
+			if (value < this.cumulativeWeights[index]) {
+				return index;
+			}
+		}
+		throw new IllegalStateException("No operation in the workload mix.");
+	}
+}
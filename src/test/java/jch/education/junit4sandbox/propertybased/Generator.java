@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.propertybased;
+
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Source of random values of a particular type, including the ability to shrink a value
+ * (i.e. to provide simpler candidates) in order to find a minimal counterexample.
+ */
+public interface Generator<T> {
+
+	T next(SplittableRandom random);
+
+	/**
+	 * Returns candidates simpler than the given value, the simplest candidate first. An empty
+	 * stream means the value cannot be shrunk anymore.
+	 */
+	Stream<T> shrink(T value);
+
+	default String describe(T value) {
+		return String.valueOf(value);
+	}
+}
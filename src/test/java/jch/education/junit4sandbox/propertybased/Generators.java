@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.propertybased;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import jch.education.junit4sandbox.assertions.Point3D;
+import jch.education.junit4sandbox.exceptions.Severity;
+
+/**
+ * Factory methods for the generators supported by {@link PropertyBasedRunner}. The generators
+ * are specialized for primitive values, i.e. random int values are generated and shrunk without
+ * boxing. Values are boxed just at the very end, when they are passed to a property method.
+ */
+public class Generators {
+
+	/**
+	 * Avoids instantiation of this utility class.
+	 */
+	private Generators() {}
+
+	public static IntGenerator ints(int min, int max) {
+		return new IntGenerator(min, max);
+	}
+
+	public static Generator<Point3D> points(IntGenerator coordinates) {
+		return new PointGenerator(coordinates);
+	}
+
+	public static Generator<Severity> severities() {
+		return new SeverityGenerator();
+	}
+
+	/**
+	 * Generator of int values from an inclusive range. Shrinking moves the value towards zero
+	 * (or towards the bound of the range closest to zero if zero is out of the range).
+	 */
+	public static final class IntGenerator implements Generator<Integer> {
+
+		private final int min;
+
+		private final int max;
+
+		IntGenerator(int min, int max) {
+			if (min > max) {
+				String message = "Invalid range [%d; %d].";
+				message = String.format(message, min, max);
+				throw new IllegalArgumentException(message);
+			}
+			this.min = min;
+			this.max = max;
+		}
+
+		public int nextInt(SplittableRandom random) {
+			if (this.min == Integer.MIN_VALUE && this.max == Integer.MAX_VALUE) {
+				return random.nextInt();
+			}
+			return (int) random.nextLong(this.min, (long) this.max + 1);
+		}
+
+		/**
+		 * Returns the candidates obtained by halving the distance between the given value and
+		 * the simplest value of the range, the simplest value first.
+		 */
+		public IntStream shrinkInt(int value) {
+			final int target = Math.max(this.min, Math.min(this.max, 0));
+			final int[] candidates = new int[Integer.SIZE + 1];
+			int count = 0;
+			for (long step = (long) value - target; step != 0; step /= 2) {
+				candidates[count++] = (int) (value - step);
+			}
+			return Arrays.stream(candidates, 0, count);
+		}
+
+		@Override
+		public Integer next(SplittableRandom random) {
+			return nextInt(random);
+		}
+
+		@Override
+		public Stream<Integer> shrink(Integer value) {
+			return shrinkInt(value).boxed();
+		}
+	}
+
+	private static final class PointGenerator implements Generator<Point3D> {
+
+		private final IntGenerator coordinates;
+
+		PointGenerator(IntGenerator coordinates) {
+			this.coordinates = coordinates;
+		}
+
+		@Override
+		public Point3D next(SplittableRandom random) {
+			return new Point3D(this.coordinates.nextInt(random), this.coordinates.nextInt(random), this.coordinates.nextInt(random));
+		}
+
+		@Override
+		public Stream<Point3D> shrink(Point3D point) {
+			final Stream<Point3D> shrunkX = this.coordinates.shrinkInt(point.x).mapToObj(x -> new Point3D(x, point.y, point.z));
+			final Stream<Point3D> shrunkY = this.coordinates.shrinkInt(point.y).mapToObj(y -> new Point3D(point.x, y, point.z));
+			final Stream<Point3D> shrunkZ = this.coordinates.shrinkInt(point.z).mapToObj(z -> new Point3D(point.x, point.y, z));
+			return Stream.concat(shrunkX, Stream.concat(shrunkY, shrunkZ));
+		}
+
+		@Override
+		public String describe(Point3D point) {
+			return String.format("%s instance with coordinates [%d; %d; %d]", Point3D.class.getSimpleName(), point.x, point.y, point.z);
+		}
+	}
+
+	/**
+	 * Generator of severities. The severities are ordered by their ordinals, so shrinking leads
+	 * to less serious severities.
+	 */
+	private static final class SeverityGenerator implements Generator<Severity> {
+
+		private static final Severity[] VALUES = Severity.values();
+
+		@Override
+		public Severity next(SplittableRandom random) {
+			return VALUES[random.nextInt(VALUES.length)];
+		}
+
+		@Override
+		public Stream<Severity> shrink(Severity severity) {
+			return Arrays.stream(VALUES, 0, severity.ordinal());
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.propertybased;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a test fixture run by {@link PropertyBasedRunner} as a property, i.e.
+ * a condition which must hold for any combination of values of the method parameters. The
+ * runner generates the values, invokes the method repeatedly and treats any exception (e.g.
+ * an assertion error) as a counterexample.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Property {
+
+	/**
+	 * Special value of the seed attribute meaning that a new seed is to be chosen for each
+	 * run. The chosen seed is part of the failure message, so a failed run can be reproduced.
+	 */
+	long RANDOM_SEED = 0;
+
+	int trials() default 1000;
+
+	long seed() default RANDOM_SEED;
+
+	/**
+	 * Maximal duration of the trials in milliseconds. If the budget is exhausted before all
+	 * trials are executed, the remaining trials are skipped, and the number of trials actually
+	 * executed is printed to stdout. Zero means no limit.
+	 */
+	long timeBudgetMillis() default 10_000;
+}
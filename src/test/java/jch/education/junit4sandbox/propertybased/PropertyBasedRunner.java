@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.propertybased;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+
+import jch.education.junit4sandbox.assertions.Point3D;
+import jch.education.junit4sandbox.exceptions.Severity;
+
+/**
+ * Custom runner supporting generative (property-based) test cases. Besides ordinary test
+ * methods marked as @Test, a test fixture run by this runner can contain methods marked as
+ * {@link Property}. Such methods can have parameters of the types int, {@link Point3D} and
+ * {@link Severity}, and the runner invokes them many times with randomly generated values
+ * instead of a few hand-picked values. The trials are distributed across all available
+ * processors. Each trial uses its own seed derived from the seed of the property and the
+ * index of the trial, so any trial can be reproduced regardless of the number of threads.
+ * <p>
+ * If a property does not hold for some values, the runner shrinks the values to a minimal
+ * counterexample, and the test case fails with a message containing the original as well as
+ * the shrunk counterexample and the seed. Trials violating an assumption (see
+ * {@link org.junit.Assume}) are simply discarded.
+ * <p>
+ * Just a single test fixture instance is created for a property (not for each trial), and the
+ * trials are executed concurrently. Therefore, the property methods must not modify the state
+ * of the test fixture.
+ */
+public class PropertyBasedRunner extends BlockJUnit4ClassRunner {
+
+	public PropertyBasedRunner(Class<?> testClass) throws InitializationError {
+		super(testClass);
+	}
+
+	@Override
+	protected List<FrameworkMethod> computeTestMethods() {
+		final List<FrameworkMethod> result = new ArrayList<>(super.computeTestMethods());
+		result.addAll(getTestClass().getAnnotatedMethods(Property.class));
+		return Collections.unmodifiableList(result);
+	}
+
+	@Override
+	protected void validateTestMethods(List<Throwable> errors) {
+		super.validateTestMethods(errors);
+		for (final FrameworkMethod method : getTestClass().getAnnotatedMethods(Property.class)) {
+			method.validatePublicVoid(false, errors);
+			final Property property = method.getAnnotation(Property.class);
+			if (property.trials() <= 0 || property.timeBudgetMillis() < 0) {
+				String message = "Property %s must have a positive number of trials and a non-negative time budget.";
+				message = String.format(message, method.getName());
+				errors.add(new Exception(message));
+			}
+			final Method javaMethod = method.getMethod();
+			final Class<?>[] parameterTypes = javaMethod.getParameterTypes();
+			final Annotation[][] parameterAnnotations = javaMethod.getParameterAnnotations();
+			for (int index = 0; index < parameterTypes.length; index++) {
+				try {
+					generatorFor(parameterTypes[index], parameterAnnotations[index]);
+				} catch (final IllegalArgumentException e) {
+					String message = "Invalid parameter #%d of property %s: %s";
+					message = String.format(message, index, method.getName(), e.getMessage());
+					errors.add(new Exception(message));
+				}
+			}
+		}
+	}
+
+	@Override
+	protected Statement methodInvoker(FrameworkMethod method, Object test) {
+		final Property property = method.getAnnotation(Property.class);
+		if (property == null) {
+			return super.methodInvoker(method, test);
+		}
+		final Method javaMethod = method.getMethod();
+		final Class<?>[] parameterTypes = javaMethod.getParameterTypes();
+		final Annotation[][] parameterAnnotations = javaMethod.getParameterAnnotations();
+		final Generator<?>[] generators = new Generator<?>[parameterTypes.length];
+		for (int index = 0; index < generators.length; index++) {
+			generators[index] = generatorFor(parameterTypes[index], parameterAnnotations[index]);
+		}
+		return new PropertyStatement(method, test, property, generators);
+	}
+
+	private static Generator<?> generatorFor(Class<?> type, Annotation[] annotations) {
+		final Generators.IntGenerator ints = intsFor(annotations);
+		if (type == int.class || type == Integer.class) {
+			return ints;
+		}
+		if (type == Point3D.class) {
+			return Generators.points(ints);
+		}
+		if (type == Severity.class) {
+			return Generators.severities();
+		}
+		String message = "Unsupported type %s, supported types are int, %s and %s.";
+		message = String.format(message, type.getName(), Point3D.class.getSimpleName(), Severity.class.getSimpleName());
+		throw new IllegalArgumentException(message);
+	}
+
+	private static Generators.IntGenerator intsFor(Annotation[] annotations) {
+		for (final Annotation annotation : annotations) {
+			if (annotation instanceof IntRange) {
+				final IntRange range = (IntRange) annotation;
+				return Generators.ints(range.min(), range.max());
+			}
+		}
+		return Generators.ints(Integer.MIN_VALUE, Integer.MAX_VALUE);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.propertybased;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.runner.RunWith;
+
+import jch.education.junit4sandbox.assertions.Point3D;
+import jch.education.junit4sandbox.exceptions.CustomException;
+import jch.education.junit4sandbox.exceptions.Severity;
+import jch.education.junit4sandbox.parametrization.SquareRoot;
+
+/**
+ * This experimental test fixture illustrates property-based testing. Instead of a table of
+ * hand-picked values like <code>{ -7, 49 }</code>, each property below is verified for up to
+ * a million randomly generated values. If a property did not hold, the test result would not
+ * involve the (usually quite random and large) values that revealed the problem, but a minimal
+ * counterexample. For instance, if the SquareRoot class was broken for inputs greater than 100,
+ * the test result would report 101 as counterexample, regardless of the value generated by the
+ * failing trial. Together with the seed, which is also part of the test result, this makes the
+ * analysis of a failed test case straightforward.
+ * <p>
+ * The ranges of the generated int values are restricted so that the calculations cannot
+ * overflow.
+ */
+@RunWith(PropertyBasedRunner.class)
+public class PropertyBasedTestFixture {
+
+	private static final int MAX_SQUARABLE_VALUE = 46340;
+
+	private static final int MAX_COORDINATE = 26754;
+
+	@Property(trials = 1_000_000)
+	public void squareRootIsNeverNegative(@IntRange(min = -MAX_SQUARABLE_VALUE, max = MAX_SQUARABLE_VALUE) int value) {
+		assertTrue(SquareRoot.calculate(value) >= 0);
+	}
+
+	@Property(trials = 1_000_000)
+	public void squareRootIsSymmetric(@IntRange(min = -MAX_SQUARABLE_VALUE, max = MAX_SQUARABLE_VALUE) int value) {
+		assertEquals(SquareRoot.calculate(value), SquareRoot.calculate(-value));
+	}
+
+	@Property(trials = 100_000)
+	public void squaredDistanceFromOriginIsNeverNegative(@IntRange(min = -MAX_COORDINATE, max = MAX_COORDINATE) Point3D point) {
+		final int squaredDistance = SquareRoot.calculate(point.x) + SquareRoot.calculate(point.y) + SquareRoot.calculate(point.z);
+		assertTrue(squaredDistance >= 0);
+	}
+
+	@Property(trials = 10_000)
+	public void customExceptionPreservesSeverity(Severity severity) {
+		final CustomException exception = new CustomException(severity, "Just a test");
+		assertEquals(severity, exception.getSeverity());
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.propertybased;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+
+/**
+ * Statement executing the trials of a single property, including the search for a minimal
+ * counterexample if the property does not hold.
+ */
+class PropertyStatement extends Statement {
+
+	private static final int TRIALS_PER_BATCH = 1024;
+
+	private static final int MAX_SHRINK_STEPS = 10_000;
+
+	private final FrameworkMethod method;
+
+	private final Object test;
+
+	private final Property property;
+
+	private final Generator<Object>[] generators;
+
+	@SuppressWarnings("unchecked")
+	PropertyStatement(FrameworkMethod method, Object test, Property property, Generator<?>[] generators) {
+		this.method = method;
+		this.test = test;
+		this.property = property;
+		this.generators = (Generator<Object>[]) generators;
+	}
+
+	@Override
+	public void evaluate() throws Throwable {
+		final long seed = (this.property.seed() == Property.RANDOM_SEED) ? System.nanoTime() : this.property.seed();
+		final TrialsOutcome outcome = executeTrials(seed);
+		final long failingTrial = outcome.failingTrial;
+		if (failingTrial == Long.MAX_VALUE) {
+			if (outcome.budgetExhausted) {
+				String message = "Property %s: time budget of %d ms exhausted after %d of %d trials (seed = %d).";
+				message = String.format(message, this.method.getName(), this.property.timeBudgetMillis(), outcome.executedTrials, this.property.trials(), seed);
+				System.out.println(message);
+			}
+			return;
+		}
+
+		final Object[] counterexample = generateArguments(seed, failingTrial);
+		final Object[] shrunkCounterexample = shrink(counterexample);
+		final Throwable failure = failureOf(shrunkCounterexample);
+		String message = "Property %s does not hold (seed = %d, trial #%d, %d trials executed).%nOriginal counterexample: %s%nShrunk counterexample: %s%nFailure: %s";
+		message = String.format(message, this.method.getName(), seed, failingTrial, outcome.executedTrials, describe(counterexample),
+				describe(shrunkCounterexample), failure);
+		throw new AssertionError(message, failure);
+	}
+
+	/**
+	 * Executes the trials in batches distributed among several threads. Determines the index of
+	 * the first failing trial, or Long.MAX_VALUE if the property holds for all trials executed
+	 * within the time budget. Batches preceding the first failing trial are always completed,
+	 * so the result does not depend on the number of threads. The time budget is checked before
+	 * a batch is claimed, so each claimed batch is executed.
+	 */
+	private TrialsOutcome executeTrials(long seed) throws Throwable {
+		final int trials = this.property.trials();
+		final long timeBudget = TimeUnit.MILLISECONDS.toNanos(this.property.timeBudgetMillis());
+		final long startTime = System.nanoTime();
+		final AtomicLong nextBatch = new AtomicLong();
+		final AtomicLong failingTrial = new AtomicLong(Long.MAX_VALUE);
+		final AtomicLong executedTrials = new AtomicLong();
+		final AtomicBoolean budgetExhausted = new AtomicBoolean(false);
+		final int batchCount = (trials + TRIALS_PER_BATCH - 1) / TRIALS_PER_BATCH;
+		final int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), batchCount);
+
+		final ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			final List<Future<?>> workers = new ArrayList<>(threadCount);
+			for (int i = 0; i < threadCount; i++) {
+				workers.add(pool.submit(() -> {
+					while (true) {
+						if (timeBudget > 0 && System.nanoTime() - startTime > timeBudget) {
+							budgetExhausted.set(true);
+							return;
+						}
+						final long firstTrial = nextBatch.getAndIncrement() * TRIALS_PER_BATCH;
+						if (firstTrial >= trials || firstTrial > failingTrial.get()) {
+							return;
+						}
+						final long lastTrial = Math.min(firstTrial + TRIALS_PER_BATCH, trials);
+						for (long trial = firstTrial; trial < lastTrial; trial++) {
+							executedTrials.incrementAndGet();
+							if (failureOf(generateArguments(seed, trial)) != null) {
+								failingTrial.accumulateAndGet(trial, Math::min);
+								return;
+							}
+						}
+					}
+				}));
+			}
+			for (final Future<?> worker : workers) {
+				worker.get();
+			}
+		} catch (final ExecutionException e) {
+			throw e.getCause();
+		} finally {
+			pool.shutdownNow();
+		}
+		return new TrialsOutcome(failingTrial.get(), executedTrials.get(), budgetExhausted.get() && executedTrials.get() < trials);
+	}
+
+	private Object[] generateArguments(long seed, long trial) {
+		final SplittableRandom random = new SplittableRandom(mix64(seed ^ mix64(trial)));
+		final Object[] arguments = new Object[this.generators.length];
+		for (int index = 0; index < arguments.length; index++) {
+			arguments[index] = this.generators[index].next(random);
+		}
+		return arguments;
+	}
+
+	/**
+	 * Finalization mix of MurmurHash3, used to derive the seed of a trial from the seed of the
+	 * property and the index of the trial. Seeds differing by a multiple of the golden gamma
+	 * SplittableRandom uses internally would produce the same sequence shifted by a number of
+	 * values, so the arguments of consecutive trials would overlap. The mix makes the seeds of
+	 * the particular trials (and thus their sequences) unrelated.
+	 */
+	private static long mix64(long value) {
+		long result = value;
+		result = (result ^ (result >>> 33)) * 0xff51afd7ed558ccdL;
+		result = (result ^ (result >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return result ^ (result >>> 33);
+	}
+
+	/**
+	 * Greedy shrinking: the parameters are shrunk one by one, and the first simpler candidate
+	 * still violating the property is accepted, until no parameter can be shrunk anymore (or
+	 * the maximal number of attempts is reached).
+	 */
+	private Object[] shrink(Object[] counterexample) {
+		Object[] current = counterexample;
+		int attempts = 0;
+		boolean shrunk = true;
+		while (shrunk && attempts < MAX_SHRINK_STEPS) {
+			shrunk = false;
+			for (int index = 0; index < current.length && !shrunk; index++) {
+				final Iterator<Object> candidates = this.generators[index].shrink(current[index]).iterator();
+				while (candidates.hasNext() && attempts < MAX_SHRINK_STEPS) {
+					attempts++;
+					final Object[] candidate = current.clone();
+					candidate[index] = candidates.next();
+					if (failureOf(candidate) != null) {
+						current = candidate;
+						shrunk = true;
+						break;
+					}
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Invokes the property method with the given arguments. Returns the failure, or null if the
+	 * property holds (or if an assumption is violated).
+	 */
+	private Throwable failureOf(Object[] arguments) {
+		try {
+			this.method.invokeExplosively(this.test, arguments);
+			return null;
+		} catch (final AssumptionViolatedException e) {
+			return null;
+		} catch (final Throwable t) {
+			return t;
+		}
+	}
+
+	private String describe(Object[] arguments) {
+		final StringBuilder result = new StringBuilder("(");
+		for (int index = 0; index < arguments.length; index++) {
+			if (index > 0) {
+				result.append(", ");
+			}
+			result.append(this.generators[index].describe(arguments[index]));
+		}
+		return result.append(")").toString();
+	}
+
+	private static class TrialsOutcome {
+
+		private final long failingTrial;
+
+		private final long executedTrials;
+
+		private final boolean budgetExhausted;
+
+		TrialsOutcome(long failingTrial, long executedTrials, boolean budgetExhausted) {
+			this.failingTrial = failingTrial;
+			this.executedTrials = executedTrials;
+			this.budgetExhausted = budgetExhausted;
+		}
+	}
+}
@@ -18,13 +18,14 @@
  */
 package jch.education.junit4sandbox.setupteardown;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jch.education.junit4sandbox.instrumentation.LifecycleJournalRunner;
 
 /**
  * This dummy test fixture illustrates the life-cycle of instances of test fixtures.
@@ -32,13 +33,17 @@ import org.junit.Test;
  * i.e. single instance is never reused for execution of two or more test cases.
  * Besides the life-cycle of test fixture instances, this dummy test fixture also
  * illustrates the inner workings of setup/tear-down methods.
+ * <p>
+ * The invocations of the particular methods (together with the ID of the test fixture
+ * instance) are recorded by the {@link LifecycleJournalRunner} to an asynchronous journal
+ * which writes them to stdout. Writing to stdout directly from the methods (and finding out
+ * the name of the current method by walking the stack) would be much more expensive, and it
+ * would distort the durations of the particular methods. As the runner takes the names from
+ * the methods it invokes, the methods themselves are empty.
  */
+@RunWith(LifecycleJournalRunner.class)
 public class ExperimentalTestFixture {
 
-	private static final AtomicInteger sequence = new AtomicInteger(1);
-
-	private final int instanceId = ExperimentalTestFixture.sequence.getAndIncrement();
-
 	/**
 	 * A method marked as @BeforeClass must be static. It will be automatically invoked before
 	 * the very first test case of this test fixture. It will not be repeated before subsequent
@@ -51,12 +56,10 @@ public class ExperimentalTestFixture {
 	 */
 	@BeforeClass
 	public static void classLevelSetupOne() {
-		dumpCurrentMethod();
 	}
 
 	@BeforeClass
 	public static void classLevelSetupTwo() {
-		dumpCurrentMethod();
 	}
 
 	/**
@@ -71,12 +74,10 @@ public class ExperimentalTestFixture {
 	 */
 	@Before
 	public void setupOne() {
-		dumpCurrentMethod(this.instanceId);
 	}
 
 	@Before
 	public void setupTwo() {
-		dumpCurrentMethod(this.instanceId);
 	}
 
 	/**
@@ -91,12 +92,10 @@ public class ExperimentalTestFixture {
 	 */
 	@After
 	public void tearDownOne() {
-		dumpCurrentMethod(this.instanceId);
 	}
 
 	@After
 	public void tearDownTwo() {
-		dumpCurrentMethod(this.instanceId);
 	}
 
 	/**
@@ -111,48 +110,25 @@ public class ExperimentalTestFixture {
 	 */
 	@AfterClass
 	public static void classLevelTearDownOne() {
-		dumpCurrentMethod();
 	}
 
 	@AfterClass
 	public static void classLevelTearDownTwo() {
-		dumpCurrentMethod();
 	}
 
 	@Test
 	public void testCaseOne() {
-		dumpCurrentMethod(this.instanceId);
 	}
 
 	@Test
 	public void testCaseTwo() {
-		dumpCurrentMethod(this.instanceId);
 	}
 
 	@Test
 	public void testCaseThree() {
-		dumpCurrentMethod(this.instanceId);
 	}
 
 	@Test
 	public void testCaseFour() {
-		dumpCurrentMethod(this.instanceId);
-	}
-
-	private static void dumpCurrentMethod() {
-		String message = "Current method = %s";
-		message = String.format(message, getCurrentMethodName());
-		System.out.println(message);
-	}
-
-	private static void dumpCurrentMethod(int instanceId) {
-		String message = "Current method = %s, current instance ID = %d...";
-		message = String.format(message, getCurrentMethodName(), instanceId);
-		System.out.println(message);
-	}
-
-	private static String getCurrentMethodName() {
-		final StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-		return stackTrace[3].getMethodName();
 	}
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.setupteardown;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * This dummy test fixture illustrates the {@link InstanceReusingRunner}. In contrast with
+ * {@link ExperimentalTestFixture}, just a single instance of this test fixture is created,
+ * and it is reused for all test cases. The setup method marked as @Before is still invoked
+ * for each and every test case. The static fields are used just to collect the evidence;
+ * the runner only verifies the instance fields.
+ */
+@RunWith(InstanceReusingRunner.class)
+@Stateless
+public class InstanceReuseTestFixture {
+
+	private static final int TEST_CASE_COUNT = 3;
+
+	private static final AtomicInteger sequence = new AtomicInteger(1);
+
+	private static final AtomicInteger setupCount = new AtomicInteger();
+
+	private static final Set<Integer> usedInstanceIds = ConcurrentHashMap.newKeySet();
+
+	private final int instanceId = InstanceReuseTestFixture.sequence.getAndIncrement();
+
+	@Before
+	public void setup() {
+		setupCount.incrementAndGet();
+		usedInstanceIds.add(this.instanceId);
+	}
+
+	@AfterClass
+	public static void verifyInstanceReuse() {
+		assertEquals(TEST_CASE_COUNT, setupCount.get());
+		assertEquals(1, usedInstanceIds.size());
+	}
+
+	@Test
+	public void testCaseOne() {
+		assertEquals(1, usedInstanceIds.size());
+	}
+
+	@Test
+	public void testCaseTwo() {
+		assertEquals(1, usedInstanceIds.size());
+	}
+
+	@Test
+	public void testCaseThree() {
+		assertEquals(1, usedInstanceIds.size());
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.setupteardown;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.Rule;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+
+/**
+ * Custom runner which deviates from the instantiation policy of JUnit for test fixtures marked
+ * as {@link Stateless}. As illustrated by {@link ExperimentalTestFixture}, JUnit creates a new
+ * test fixture instance for each and every test case. For a test fixture with thousands of test
+ * cases and expensive field initializers, this means a lot of unnecessary allocations and
+ * constructor invocations. For a test fixture marked as Stateless, this runner creates just a
+ * single instance per thread and reuses it for all test cases executed by the thread. Test
+ * fixtures not marked as Stateless are instantiated as usual.
+ * <p>
+ * The setup/tear-down methods marked as @Before/@After are still invoked for each and every test
+ * case. However, as the instance is reused, they must not leave any state in it. This is why the
+ * runner verifies (before the very first test case is executed) that all instance fields of a
+ * Stateless test fixture are final, and that there are no rules (rules like ExpectedException
+ * keep state specific to a single test case). Final fields must refer to immutable objects; this
+ * cannot be verified by the runner. The reused instances are released as soon as all test cases
+ * of the test fixture have been executed, so they do not outlive the test fixture. This also
+ * applies to instances created by worker threads of a parallel scheduler, as the instances
+ * are kept in a map indexed by the threads rather than in thread-local variables.
+ */
+public class InstanceReusingRunner extends BlockJUnit4ClassRunner {
+
+	private final ConcurrentMap<Thread, Object> instances = new ConcurrentHashMap<>();
+
+	public InstanceReusingRunner(Class<?> testClass) throws InitializationError {
+		super(testClass);
+	}
+
+	@Override
+	protected void collectInitializationErrors(List<Throwable> errors) {
+		super.collectInitializationErrors(errors);
+		if (!isStateless()) {
+			return;
+		}
+		for (Class<?> type = getTestClass().getJavaClass(); type != Object.class; type = type.getSuperclass()) {
+			for (final Field field : type.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+					continue;
+				}
+				if (!Modifier.isFinal(field.getModifiers())) {
+					String message = "Test fixture %s is marked as @Stateless, but its instance field %s.%s is not final.";
+					message = String.format(message, getTestClass().getName(), type.getSimpleName(), field.getName());
+					errors.add(new Exception(message));
+				}
+				if (field.isAnnotationPresent(Rule.class)) {
+					String message = "Test fixture %s is marked as @Stateless, but its instance field %s.%s is a rule.";
+					message = String.format(message, getTestClass().getName(), type.getSimpleName(), field.getName());
+					errors.add(new Exception(message));
+				}
+			}
+		}
+		if (!getTestClass().getAnnotatedMethods(Rule.class).isEmpty()) {
+			String message = "Test fixture %s is marked as @Stateless, but it provides rules.";
+			message = String.format(message, getTestClass().getName());
+			errors.add(new Exception(message));
+		}
+	}
+
+	@Override
+	protected Object createTest() throws Exception {
+		if (!isStateless()) {
+			return super.createTest();
+		}
+		// each thread only accesses its own entry, so there is no race between get and put
+		final Thread currentThread = Thread.currentThread();
+		Object instance = this.instances.get(currentThread);
+		if (instance == null) {
+			instance = super.createTest();
+			this.instances.put(currentThread, instance);
+		}
+		return instance;
+	}
+
+	@Override
+	protected Statement childrenInvoker(RunNotifier notifier) {
+		final Statement children = super.childrenInvoker(notifier);
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				try {
+					children.evaluate();
+				} finally {
+					InstanceReusingRunner.this.instances.clear();
+				}
+			}
+		};
+	}
+
+	private boolean isStateless() {
+		return getTestClass().getJavaClass().isAnnotationPresent(Stateless.class);
+	}
+}
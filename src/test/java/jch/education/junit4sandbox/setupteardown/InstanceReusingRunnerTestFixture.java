@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.setupteardown;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+
+/**
+ * This test fixture verifies that the {@link InstanceReusingRunner} refuses test fixtures
+ * marked as {@link Stateless} which could keep state between test cases. The sample test
+ * fixtures are nested classes, therefore they are not executed by surefire directly.
+ */
+public class InstanceReusingRunnerTestFixture {
+
+	@Test
+	public void statelessFixtureWithNonFinalFieldIsRejected() {
+		final Result result = new JUnitCore().run(Request.aClass(NonFinalFieldFixture.class));
+		assertEquals(1, result.getFailureCount());
+		assertThat(result.getFailures().get(0).getMessage(), containsString("its instance field NonFinalFieldFixture.counter is not final"));
+	}
+
+	@Test
+	public void statelessFixtureWithRuleIsRejected() {
+		final Result result = new JUnitCore().run(Request.aClass(RuleFixture.class));
+		assertEquals(1, result.getFailureCount());
+		assertThat(result.getFailures().get(0).getMessage(), containsString("its instance field RuleFixture.temporaryFolder is a rule"));
+	}
+
+	@Test
+	public void fixtureNotMarkedAsStatelessIsNotVerified() {
+		final Result result = new JUnitCore().run(Request.aClass(OrdinaryFixture.class));
+		assertEquals(0, result.getFailureCount());
+		assertEquals(1, result.getRunCount());
+	}
+
+	@RunWith(InstanceReusingRunner.class)
+	@Stateless
+	public static class NonFinalFieldFixture {
+
+		private int counter;
+
+		@Test
+		public void testCase() {
+			this.counter++;
+		}
+	}
+
+	@RunWith(InstanceReusingRunner.class)
+	@Stateless
+	public static class RuleFixture {
+
+		@Rule
+		public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+		@Test
+		public void testCase() {}
+	}
+
+	@RunWith(InstanceReusingRunner.class)
+	public static class OrdinaryFixture {
+
+		private int counter;
+
+		@Test
+		public void testCase() {
+			this.counter++;
+		}
+	}
+}
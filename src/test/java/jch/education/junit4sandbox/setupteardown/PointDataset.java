@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.setupteardown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jch.education.junit4sandbox.parametrization.MappedTestVectors;
+import jch.education.junit4sandbox.parametrization.TestVectorFileGenerator;
+
+/**
+ * Dummy expensive resource shared by several test fixtures: a memory-mapped dataset of points,
+ * each point being a record consisting of three int values (x, y and z). The dataset counts
+ * its creations, so the test fixtures can verify that it has been created just once.
+ */
+final class PointDataset {
+
+	static final int POINT_COUNT = 100_000;
+
+	static final String NAME = "point-dataset";
+
+	private static final Path FILE = Paths.get("target", "point-dataset.bin");
+
+	private static final AtomicInteger creationCount = new AtomicInteger();
+
+	/**
+	 * Avoids instantiation of this utility class.
+	 */
+	private PointDataset() {}
+
+	static SharedResourceRule<MappedTestVectors> newRule() {
+		return new SharedResourceRule<>(NAME, PointDataset::create);
+	}
+
+	static int getCreationCount() {
+		return creationCount.get();
+	}
+
+	private static MappedTestVectors create() throws Exception {
+		creationCount.incrementAndGet();
+		Files.createDirectories(FILE.getParent());
+		TestVectorFileGenerator.generate(FILE, 3, POINT_COUNT, (record, values) -> {
+			values[0] = record;
+			values[1] = -record;
+			values[2] = record % 1000;
+		});
+		return MappedTestVectors.open(FILE);
+	}
+}
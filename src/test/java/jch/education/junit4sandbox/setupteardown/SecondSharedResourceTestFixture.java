@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.setupteardown;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import jch.education.junit4sandbox.parametrization.MappedTestVectors;
+
+/**
+ * This dummy test fixture (together with {@link FirstSharedResourceTestFixture}) illustrates
+ * an expensive resource shared by several test fixtures. Both test fixtures use the same dataset
+ * of points, and regardless of which of them is executed first, the dataset is created just once.
+ * If the dataset was created by a method marked as @BeforeClass, each of the test fixtures would
+ * create its own instance.
+ */
+public class SecondSharedResourceTestFixture {
+
+	@ClassRule
+	public static final SharedResourceRule<MappedTestVectors> points = PointDataset.newRule();
+
+	@Test
+	public void datasetIsCreatedJustOnce() {
+		assertEquals(PointDataset.POINT_COUNT, points.get().getRecordCount());
+		assertEquals(1, PointDataset.getCreationCount());
+	}
+
+	@Test
+	public void allPointsOfDatasetAreWithinExpectedRange() {
+		final MappedTestVectors dataset = points.get();
+		for (int point = 0; point < dataset.getRecordCount(); point++) {
+			assertEquals(-dataset.get(point, 0), dataset.get(point, 1));
+			assertTrue(dataset.get(point, 2) < 1000);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.setupteardown;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import jch.education.junit4sandbox.setupteardown.SharedResources.Destructor;
+import jch.education.junit4sandbox.setupteardown.SharedResources.Factory;
+import jch.education.junit4sandbox.setupteardown.SharedResources.Retention;
+
+/**
+ * Rule providing access to a resource registered in {@link SharedResources}. It is meant to be
+ * used as a class rule: the resource is acquired before the first method marked as @BeforeClass
+ * and released after the last method marked as @AfterClass, so it is available in all
+ * setup/tear-down methods as well as in all test methods. Used as an ordinary rule, it would
+ * acquire/release the resource around each and every test case.
+ */
+public class SharedResourceRule<T> implements TestRule {
+
+	private final String name;
+
+	private final Factory<T> factory;
+
+	private final Destructor<? super T> destructor;
+
+	private final Retention retention;
+
+	private volatile T resource;
+
+	public SharedResourceRule(String name, Factory<T> factory, Destructor<? super T> destructor, Retention retention) {
+		this.name = name;
+		this.factory = factory;
+		this.destructor = destructor;
+		this.retention = retention;
+	}
+
+	/**
+	 * Creates a rule for a resource which does not need any explicit destruction, retained
+	 * until the JVM terminates.
+	 */
+	public SharedResourceRule(String name, Factory<T> factory) {
+		this(name, factory, resource -> {}, Retention.UNTIL_JVM_EXIT);
+	}
+
+	@Override
+	public Statement apply(Statement base, Description description) {
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				SharedResourceRule.this.resource = SharedResources.acquire(SharedResourceRule.this.name,
+						SharedResourceRule.this.factory, SharedResourceRule.this.destructor, SharedResourceRule.this.retention);
+				try {
+					base.evaluate();
+				} finally {
+					SharedResourceRule.this.resource = null;
+					SharedResources.release(SharedResourceRule.this.name);
+				}
+			}
+		};
+	}
+
+	public T get() {
+		final T result = this.resource;
+		if (result == null) {
+			throw new IllegalStateException("Shared resource " + this.name + " is not acquired");
+		}
+		return result;
+	}
+}
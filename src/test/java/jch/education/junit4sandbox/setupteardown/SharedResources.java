@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 Jaroslav Chmurny
+ *
+ * This file is part of JUnit 4 Sandbox.
+ *
+ * JUnit 4 Sandbox is free software developed for educational purposes.
+ * It is licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package jch.education.junit4sandbox.setupteardown;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JVM-wide registry of expensive resources shared by several test fixtures. A resource set up
+ * by a method marked as @BeforeClass is available just to a single test fixture, and each test
+ * fixture needing the same resource has to create its own instance. A resource registered here
+ * is created lazily by the first user, and all subsequent users (within the same JVM, i.e. the
+ * same Surefire fork) get the same instance. The registry counts the users of each resource,
+ * and depending on the retention policy, the resource is destroyed when its last user releases
+ * it, or when the JVM terminates.
+ * <p>
+ * The creation of a resource is thread-safe, i.e. even if several test fixtures executed by
+ * parallel runners acquire the same resource concurrently, the resource is created just once.
+ * Test fixtures usually do not use this class directly, they use the {@link SharedResourceRule}
+ * instead.
+ */
+public final class SharedResources {
+
+	/**
+	 * Strategy creating a resource.
+	 */
+	@FunctionalInterface
+	public interface Factory<T> {
+		T create() throws Exception;
+	}
+
+	/**
+	 * Strategy destroying a resource (e.g. closing it).
+	 */
+	@FunctionalInterface
+	public interface Destructor<T> {
+		void destroy(T resource) throws Exception;
+	}
+
+	public enum Retention {
+		/**
+		 * The resource is destroyed as soon as its last user releases it. If the resource is
+		 * acquired later again, a new instance is created.
+		 */
+		UNTIL_LAST_USER,
+		/**
+		 * The resource survives the release by its last user, so test fixtures executed one
+		 * after another share the same instance. It is destroyed when the JVM terminates.
+		 */
+		UNTIL_JVM_EXIT,
+	}
+
+	private static final ConcurrentMap<String, Entry<?>> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Resources retained until the JVM terminates, in the order of their creation.
+	 */
+	private static final List<Entry<?>> retainedEntries = Collections.synchronizedList(new ArrayList<>());
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(SharedResources::destroyRetainedResources, "shared-resources-shutdown"));
+	}
+
+	/**
+	 * Avoids instantiation of this utility class.
+	 */
+	private SharedResources() {}
+
+	/**
+	 * Returns the resource with the given name, creating it if necessary, and increments the
+	 * number of its users. Each invocation must be paired with an invocation of the
+	 * {@link #release(String)} method. If the resource has already been registered, the given
+	 * factory, destructor and retention policy are ignored, i.e. those specified by the very
+	 * first invocation apply.
+	 */
+	public static <T> T acquire(String name, Factory<T> factory, Destructor<? super T> destructor, Retention retention) throws Exception {
+		final Entry<?> existingEntry = entries.computeIfAbsent(name, key -> new Entry<>(key, factory, destructor, retention));
+		@SuppressWarnings("unchecked")
+		final Entry<T> entry = (Entry<T>) existingEntry;
+		return entry.acquire();
+	}
+
+	/**
+	 * Decrements the number of users of the resource with the given name, destroying the
+	 * resource if it is not used anymore and its retention policy allows to do so.
+	 */
+	public static void release(String name) throws Exception {
+		final Entry<?> entry = entries.get(name);
+		if (entry == null) {
+			throw new IllegalStateException("Unknown shared resource " + name);
+		}
+		entry.release();
+	}
+
+	/**
+	 * Returns the number of current users of the resource with the given name.
+	 */
+	public static int getUserCount(String name) {
+		final Entry<?> entry = entries.get(name);
+		return (entry == null) ? 0 : entry.getUserCount();
+	}
+
+	private static void destroyRetainedResources() {
+		final List<Entry<?>> entriesToDestroy;
+		synchronized (retainedEntries) {
+			entriesToDestroy = new ArrayList<>(retainedEntries);
+		}
+		Collections.reverse(entriesToDestroy);
+		for (final Entry<?> entry : entriesToDestroy) {
+			try {
+				entry.destroy();
+			} catch (final Exception e) {
+				System.err.println("Failed to destroy shared resource " + entry.name + ": " + e);
+			}
+		}
+	}
+
+	private static class Entry<T> {
+
+		private final String name;
+
+		private final Factory<T> factory;
+
+		private final Destructor<? super T> destructor;
+
+		private final Retention retention;
+
+		private T resource;
+
+		private int userCount;
+
+		Entry(String name, Factory<T> factory, Destructor<? super T> destructor, Retention retention) {
+			this.name = name;
+			this.factory = factory;
+			this.destructor = destructor;
+			this.retention = retention;
+		}
+
+		synchronized T acquire() throws Exception {
+			if (this.resource == null) {
+				this.resource = this.factory.create();
+				if (this.retention == Retention.UNTIL_JVM_EXIT) {
+					retainedEntries.add(this);
+				}
+			}
+			this.userCount++;
+			return this.resource;
+		}
+
+		synchronized void release() throws Exception {
+			if (this.userCount == 0) {
+				throw new IllegalStateException("Shared resource " + this.name + " released more times than acquired");
+			}
+			this.userCount--;
+			if (this.userCount == 0 && this.retention == Retention.UNTIL_LAST_USER) {
+				destroy();
+			}
+		}
+
+		synchronized int getUserCount() {
+			return this.userCount;
+		}
+
+		synchronized void destroy() throws Exception {
+			if (this.resource == null) {
+				return;
+			}
+			final T destroyedResource = this.resource;
+			this.resource = null;
+			this.destructor.destroy(destroyedResource);
+		}
+	}
+}